@@ -0,0 +1,227 @@
+package org.acme.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.acme.Carro;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobe a aplicação empacotada (target/quarkus-app/quarkus-run.jar) num processo separado, numa porta livre,
+ * e a popula pela própria API. Cada trial do JMH tem a sua instância, com um banco H2 em arquivo novo num diretório
+ * temporário (perfil prod: esquema criado pelo Flyway).
+ *
+ * Propriedades de sistema:
+ * benchmark.app.jar   caminho do quarkus-run.jar (padrão: target/quarkus-app/quarkus-run.jar)
+ * benchmark.app.jvm   argumentos extras da JVM da aplicação, separados por espaço (padrão: -Xmx1g)
+ * benchmark.app.props propriedades extras do Quarkus, separadas por espaço (ex.: -Dquarkus.datasource.jdbc.url=...)
+ */
+public final class AplicacaoEmExecucao implements AutoCloseable {
+
+    static final int MARCAS = 50;
+    static final int ACESSORIOS = 40;
+    static final int MAX_ACESSORIOS_POR_CARRO = 5;
+    private static final int CARROS_POR_REQUISICAO = 10_000;
+
+    private final Process processo;
+    private final URI base;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = Json.mapper();
+
+    private final List<Long> marcaIds = new ArrayList<>();
+    private final List<Long> acessorioIds = new ArrayList<>();
+    private final List<Long> carroIds = new ArrayList<>();
+
+    private AplicacaoEmExecucao(Process processo, URI base) {
+        this.processo = processo;
+        this.base = base;
+    }
+
+    public static AplicacaoEmExecucao iniciar() throws IOException, InterruptedException {
+        return iniciar("");
+    }
+
+    /**
+     * Sobe a aplicação com propriedades do Quarkus além das de benchmark.app.props (separadas por espaço).
+     */
+    public static AplicacaoEmExecucao iniciar(String propsExtras) throws IOException, InterruptedException {
+        String jar = System.getProperty("benchmark.app.jar", "target/quarkus-app/quarkus-run.jar");
+        if (!new File(jar).isFile()) {
+            throw new IllegalStateException("Aplicação empacotada não encontrada em " + jar
+                    + " (rode ./mvnw package na raiz ou informe -Dbenchmark.app.jar)");
+        }
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(argumentos(System.getProperty("benchmark.app.jvm", "-Xmx1g")));
+        comando.add("-Dquarkus.http.port=" + porta);
+        comando.add("-DDB_DIR=" + Files.createTempDirectory("benchmark-db-"));
+        comando.add("-Dquarkus.hibernate-orm.log.sql=false");
+        comando.add("-Dquarkus.log.level=WARN");
+        comando.addAll(argumentos(System.getProperty("benchmark.app.props", "")));
+        comando.addAll(argumentos(propsExtras));
+        comando.add("-jar");
+        comando.add(jar);
+
+        Path log = Files.createTempFile("benchmark-app-", ".log");
+        Process processo = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        AplicacaoEmExecucao app = new AplicacaoEmExecucao(processo, URI.create("http://localhost:" + porta));
+        app.aguardarInicio(log);
+        return app;
+    }
+
+    private static List<String> argumentos(String valor) {
+        return valor.isBlank() ? List.of() : List.of(valor.trim().split("\\s+"));
+    }
+
+    private void aguardarInicio(Path log) throws IOException, InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(90);
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("A aplicação terminou durante a inicialização, veja " + log);
+            }
+            try {
+                if (get("/marcas").statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // ainda subindo
+            }
+            Thread.sleep(200);
+        }
+        close();
+        throw new IllegalStateException("A aplicação não respondeu em 90s, veja " + log);
+    }
+
+    /**
+     * Cria as marcas e os acessórios e importa a quantidade pedida de carros via POST /carros/bulk.
+     * Os ids gerados ficam disponíveis em marcaIds(), acessorioIds() e carroIds().
+     */
+    public void popular(int carros, long semente) throws IOException, InterruptedException {
+        GeradorDados gerador = new GeradorDados(semente);
+        for (int i = 0; i < MARCAS; i++) {
+            exigir(post("/marcas", "application/json", mapper.writeValueAsBytes(gerador.marca(i))), 201);
+        }
+        for (int i = 0; i < ACESSORIOS; i++) {
+            exigir(post("/acessorios", "application/json", mapper.writeValueAsBytes(gerador.acessorio(i))), 201);
+        }
+        for (JsonNode marca : mapper.readTree(exigir(get("/marcas"), 200).body())) {
+            marcaIds.add(marca.get("id").asLong());
+        }
+        for (JsonNode acessorio : mapper.readTree(exigir(get("/acessorios"), 200).body())) {
+            acessorioIds.add(acessorio.get("id").asLong());
+        }
+
+        for (int enviados = 0; enviados < carros; enviados += CARROS_POR_REQUISICAO) {
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+            for (int i = enviados; i < Math.min(carros, enviados + CARROS_POR_REQUISICAO); i++) {
+                Carro carro = gerador.carro(marcaIds, acessorioIds, MAX_ACESSORIOS_POR_CARRO);
+                mapper.writeValue(ndjson, carro);
+                ndjson.write('\n');
+            }
+            JsonNode resultado = mapper.readTree(exigir(post("/carros/bulk", "application/x-ndjson", ndjson.toByteArray()), 200).body());
+            if (resultado.get("Rejeitados").asLong() > 0) {
+                throw new IllegalStateException("Carros rejeitados na carga: " + resultado.get("Erros"));
+            }
+        }
+
+        // A exportação CSV devolve os ids em ordem, sem montar a lista inteira na memória da aplicação.
+        HttpResponse<InputStream> export = http.send(requisicao("/carros/export?format=csv").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(export.body(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (!linha.isEmpty()) {
+                    carroIds.add(Long.parseLong(linha.substring(0, linha.indexOf(','))));
+                }
+            }
+        }
+    }
+
+    public HttpResponse<byte[]> get(String caminho) throws IOException, InterruptedException {
+        return http.send(requisicao(caminho).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * GET com cabeçalhos extras (ex.: Accept, Accept-Encoding). O corpo volta como veio na rede: o HttpClient
+     * não descomprime gzip.
+     */
+    public HttpResponse<byte[]> get(String caminho, Map<String, String> cabecalhos) throws IOException, InterruptedException {
+        HttpRequest.Builder requisicao = requisicao(caminho);
+        cabecalhos.forEach(requisicao::setHeader);
+        return http.send(requisicao.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    public HttpResponse<byte[]> post(String caminho, String tipo, byte[] corpo) throws IOException, InterruptedException {
+        return http.send(requisicao(caminho).header("Content-Type", tipo).POST(HttpRequest.BodyPublishers.ofByteArray(corpo)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    public HttpResponse<byte[]> put(String caminho, byte[] corpo) throws IOException, InterruptedException {
+        return http.send(requisicao(caminho).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofByteArray(corpo)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(base.resolve(caminho)).timeout(Duration.ofMinutes(10)).header("Accept", "*/*");
+    }
+
+    public static HttpResponse<byte[]> exigir(HttpResponse<byte[]> resposta, int status) {
+        if (resposta.statusCode() != status) {
+            throw new IllegalStateException(resposta.request().method() + " " + resposta.uri() + " retornou "
+                    + resposta.statusCode() + ": " + new String(resposta.body(), StandardCharsets.UTF_8));
+        }
+        return resposta;
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public List<Long> marcaIds() {
+        return marcaIds;
+    }
+
+    public List<Long> acessorioIds() {
+        return acessorioIds;
+    }
+
+    public List<Long> carroIds() {
+        return carroIds;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        processo.destroy();
+        if (!processo.waitFor(15, TimeUnit.SECONDS)) {
+            processo.destroyForcibly().waitFor();
+        }
+    }
+}
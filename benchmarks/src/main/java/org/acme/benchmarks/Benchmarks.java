@@ -0,0 +1,35 @@
+package org.acme.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Ponto de entrada do benchmarks.jar. Aceita as mesmas opções do org.openjdk.jmh.Main, mas, se -rf/-rff
+ * não forem informados, grava o resultado em JSON (jmh-result-&lt;data&gt;.json) para comparação entre versões.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp() || linhaDeComando.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        if (linhaDeComando.getResultFormat().hasValue() || linhaDeComando.getResult().hasValue()) {
+            new Runner(opcoes.build()).run();
+            return;
+        }
+        String arquivo = "jmh-result-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+        new Runner(opcoes.resultFormat(ResultFormatType.JSON).result(arquivo).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package org.acme.benchmarks;
+
+import org.acme.Carro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de POST /carros e PUT /carros/{id}. Roda com várias threads clientes para que a contenção
+ * no pool de conexões e nos locks do banco apareça no resultado.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class EscritaBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Base {
+
+        @Param({"1000", "100000"})
+        int carros;
+
+        AplicacaoEmExecucao app;
+
+        @Setup(Level.Trial)
+        public void iniciar() throws IOException, InterruptedException {
+            app = AplicacaoEmExecucao.iniciar();
+            app.popular(carros, 42);
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() throws InterruptedException {
+            app.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cliente {
+
+        GeradorDados gerador;
+
+        @Setup(Level.Trial)
+        public void iniciar() {
+            gerador = new GeradorDados(Thread.currentThread().threadId());
+        }
+    }
+
+    @Benchmark
+    public int insert(Base base, Cliente cliente) throws IOException, InterruptedException {
+        Carro carro = cliente.gerador.carro(base.app.marcaIds(), base.app.acessorioIds(), AplicacaoEmExecucao.MAX_ACESSORIOS_POR_CARRO);
+        return AplicacaoEmExecucao.exigir(base.app.post("/carros", "application/json", base.app.mapper().writeValueAsBytes(carro)), 201)
+                .statusCode();
+    }
+
+    @Benchmark
+    public int update(Base base, Cliente cliente) throws IOException, InterruptedException {
+        List<Long> ids = base.app.carroIds();
+        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        Carro carro = cliente.gerador.carro(base.app.marcaIds(), base.app.acessorioIds(), AplicacaoEmExecucao.MAX_ACESSORIOS_POR_CARRO);
+        HttpResponse<byte[]> resposta = base.app.put("/carros/" + id, base.app.mapper().writeValueAsBytes(carro));
+        // Duas threads podem sortear o mesmo carro; o 412 do lock otimista é um resultado válido aqui.
+        if (resposta.statusCode() == 412) {
+            return 412;
+        }
+        return AplicacaoEmExecucao.exigir(resposta, 200).statusCode();
+    }
+}
@@ -0,0 +1,109 @@
+package org.acme.benchmarks;
+
+import org.acme.Acessorio;
+import org.acme.Carro;
+import org.acme.CarroView;
+import org.acme.FichaMarca;
+import org.acme.Marca;
+import org.acme.SearchCarroResponse;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera marcas, acessórios e carros determinísticos (mesma semente, mesmos dados) para popular a API
+ * e montar páginas de pesquisa em memória.
+ */
+public final class GeradorDados {
+
+    static final String[] MODELOS = {
+            "Mustang", "Fusion", "Model S", "Model 3", "Civic", "Corolla", "Golf", "Polo", "Onix", "Cruze",
+            "Hilux", "Ranger", "Compass", "Renegade", "Kicks", "Versa", "Argo", "Strada", "Tracker", "HB20"
+    };
+
+    private static final String[] PAISES = {"Estados Unidos", "Japão", "Alemanha", "Brasil", "Itália", "Coreia do Sul", "França"};
+
+    private static final String[] ADJETIVOS = {"confortável", "econômico", "esportivo", "seguro", "espaçoso", "elétrico", "robusto"};
+
+    private final Random random;
+
+    public GeradorDados(long semente) {
+        this.random = new Random(semente);
+    }
+
+    public Marca marca(int indice) {
+        FichaMarca ficha = new FichaMarca();
+        ficha.historia = "História da marca " + indice + ", fundada para o benchmark.";
+        ficha.fundadores = "Fundador " + indice;
+        ficha.premiosConquistados = "Prêmio " + (indice % 7);
+        return new Marca(null, "Marca " + indice, "Empresa Automotiva " + indice + " S.A.",
+                LocalDate.of(1900 + indice % 120, 1 + indice % 12, 1 + indice % 28), PAISES[indice % PAISES.length], ficha);
+    }
+
+    public Acessorio acessorio(int indice) {
+        Acessorio acessorio = new Acessorio();
+        acessorio.nome = "Acessório " + indice;
+        acessorio.descricao = "Descrição do acessório " + indice;
+        return acessorio;
+    }
+
+    /**
+     * Carro no formato aceito por POST /carros e /carros/bulk: marca e acessórios vão só com o id.
+     */
+    public Carro carro(List<Long> marcaIds, List<Long> acessorioIds, int maxAcessorios) {
+        String modelo = MODELOS[random.nextInt(MODELOS.length)];
+        Carro carro = new Carro(null, modelo + " " + (1 + random.nextInt(999)),
+                modelo + " " + ADJETIVOS[random.nextInt(ADJETIVOS.length)] + " para o dia a dia.",
+                1990 + random.nextInt(36), Math.round(random.nextDouble() * 100) / 10.0, random.nextInt(6001));
+        if (!marcaIds.isEmpty()) {
+            Marca marca = new Marca();
+            marca.id = marcaIds.get(random.nextInt(marcaIds.size()));
+            carro.marca = marca;
+        }
+        int quantidade = acessorioIds.isEmpty() ? 0 : random.nextInt(maxAcessorios + 1);
+        for (int i = 0; i < quantidade; i++) {
+            Acessorio acessorio = new Acessorio();
+            acessorio.id = acessorioIds.get(random.nextInt(acessorioIds.size()));
+            carro.acessorios.add(acessorio);
+        }
+        return carro;
+    }
+
+    /**
+     * Página de pesquisa com o grafo completo (marca, perfil e acessórios), como a API devolve.
+     */
+    public SearchCarroResponse pagina(int tamanho, int acessoriosPorCarro) {
+        List<Marca> marcas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Marca marca = marca(i);
+            marca.id = (long) i + 1;
+            marca.perfil.id = marca.id;
+            marcas.add(marca);
+        }
+        List<Acessorio> acessorios = new ArrayList<>();
+        for (int i = 0; i < Math.max(acessoriosPorCarro, 1) * 3; i++) {
+            Acessorio acessorio = acessorio(i);
+            acessorio.id = (long) i + 1;
+            acessorios.add(acessorio);
+        }
+
+        SearchCarroResponse response = new SearchCarroResponse();
+        for (int i = 0; i < tamanho; i++) {
+            Carro carro = carro(List.of(), List.of(), 0);
+            carro.id = (long) i + 1;
+            carro.marca = marcas.get(random.nextInt(marcas.size()));
+            while (carro.acessorios.size() < acessoriosPorCarro) {
+                carro.acessorios.add(acessorios.get(random.nextInt(acessorios.size())));
+            }
+            response.Carros.add(CarroView.de(carro));
+        }
+        response.TotalCarros = 100_000;
+        response.TotalPages = (int) Math.ceil(100_000.0 / tamanho);
+        response.HasMore = true;
+        response.NextCursor = "bW9kZWxvfGFzY3wxMjN8Q2l2aWMgMTI";
+        response.NextPage = "http://localhost:8080/carros/search?size=" + tamanho + "&cursor=" + response.NextCursor;
+        return response;
+    }
+}
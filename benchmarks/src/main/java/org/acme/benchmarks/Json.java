@@ -0,0 +1,26 @@
+package org.acme.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.acme.CamposEsparsos;
+
+/**
+ * ObjectMapper com a mesma configuração padrão do quarkus-jackson (datas ISO, propriedades desconhecidas ignoradas,
+ * filtro de campos das views).
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setFilterProvider(CamposEsparsos.filtros());
+    }
+}
@@ -0,0 +1,81 @@
+package org.acme.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /carros/search ponta a ponta (montagem da consulta, execução no H2, carga dos acessórios e JSON)
+ * em bases de tamanhos diferentes. Os termos e as páginas variam a cada chamada para que o resultado
+ * não seja só o cache de totais e o cache de consultas respondendo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int carros;
+
+    @Param({"4", "50"})
+    int tamanhoPagina;
+
+    private AplicacaoEmExecucao app;
+    private int chamada;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException, InterruptedException {
+        app = AplicacaoEmExecucao.iniciar();
+        app.popular(carros, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws InterruptedException {
+        app.close();
+    }
+
+    @Benchmark
+    public byte[] textoLivre() throws IOException, InterruptedException {
+        String termo = GeradorDados.MODELOS[chamada++ % GeradorDados.MODELOS.length];
+        return pesquisar("q=" + URLEncoder.encode(termo, StandardCharsets.UTF_8) + "&size=" + tamanhoPagina);
+    }
+
+    @Benchmark
+    public byte[] ordenadoPorAvaliacao() throws IOException, InterruptedException {
+        return pesquisar("sort=avaliacao&direction=desc&size=" + tamanhoPagina);
+    }
+
+    @Benchmark
+    public byte[] paginaProfundaOffset() throws IOException, InterruptedException {
+        int paginas = Math.max(carros / tamanhoPagina, 1);
+        int pagina = paginas / 2 + chamada++ % Math.max(paginas / 2, 1);
+        return pesquisar("sort=modelo&size=" + tamanhoPagina + "&page=" + pagina);
+    }
+
+    @Benchmark
+    public byte[] primeiraPaginaCursor() throws IOException, InterruptedException {
+        return pesquisar("sort=modelo&size=" + tamanhoPagina + "&cursor=");
+    }
+
+    private byte[] pesquisar(String parametros) throws IOException, InterruptedException {
+        return AplicacaoEmExecucao.exigir(app.get("/carros/search?" + parametros), 200).body();
+    }
+}
@@ -0,0 +1,92 @@
+package org.acme.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.acme.SearchCarroResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de uma página de SearchCarroResponse com marca, perfil e acessórios, sem I/O:
+ * isola o custo do JSON do custo do banco e do HTTP medidos em SearchBenchmark.
+ * O parâmetro formato compara JSON com as representações binárias (CBOR, Smile) e comGzip mede o custo
+ * da compressão que o servidor aplica por cima.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"4", "50", "500"})
+    int tamanhoPagina;
+
+    @Param({"0", "3", "10"})
+    int acessoriosPorCarro;
+
+    @Param({"json", "cbor", "smile"})
+    String formato;
+
+    private ObjectWriter writer;
+    private SearchCarroResponse pagina;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = switch (formato) {
+            case "cbor" -> Json.mapper().copyWith(new CBORFactory());
+            case "smile" -> Json.mapper().copyWith(new SmileFactory());
+            default -> Json.mapper();
+        };
+        writer = mapper.writerFor(SearchCarroResponse.class);
+        pagina = new GeradorDados(42).pagina(tamanhoPagina, acessoriosPorCarro);
+    }
+
+    @Benchmark
+    public byte[] paraBytes() throws IOException {
+        return writer.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public void paraStream(Blackhole bh) throws IOException {
+        writer.writeValue(new OutputStream() {
+            @Override
+            public void write(int b) {
+                bh.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bh.consume(len);
+            }
+        }, pagina);
+    }
+
+    @Benchmark
+    public byte[] comGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, pagina);
+        }
+        return bytes.toByteArray();
+    }
+}
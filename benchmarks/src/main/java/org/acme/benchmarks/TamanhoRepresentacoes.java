@@ -0,0 +1,72 @@
+package org.acme.benchmarks;
+
+import java.io.File;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytes na rede e latência média de cada combinação caminho x Accept x Accept-Encoding, para decidir
+ * o que vale a pena pedir em cada cliente (JSON, CBOR, Smile, com ou sem gzip).
+ *
+ * java -cp benchmarks/target/benchmarks.jar org.acme.benchmarks.TamanhoRepresentacoes
+ *
+ * Propriedades de sistema (além das de AplicacaoEmExecucao):
+ * tamanho.caminhos   caminhos separados por vírgula (padrão: listagem e pesquisas de carros)
+ * tamanho.repeticoes requisições por combinação para a latência média (padrão: 200)
+ * tamanho.carros     carros criados antes da medição (padrão: 2000)
+ * tamanho.saida      arquivo JSON do resultado (padrão: tamanho-&lt;data&gt;.json)
+ */
+public final class TamanhoRepresentacoes {
+
+    private static final List<String> ACCEPTS = List.of("application/json", "application/cbor", "application/x-jackson-smile");
+    private static final List<String> ENCODINGS = List.of("identity", "gzip");
+
+    public record Resultado(String caminho, String accept, String encoding, String contentEncoding, int bytes,
+                            double mediaMs) {
+    }
+
+    private TamanhoRepresentacoes() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> caminhos = List.of(System.getProperty("tamanho.caminhos",
+                "/carros,/carros/search?size=4,/carros/search?size=100,/marcas,/acessorios").split(","));
+        int repeticoes = Integer.getInteger("tamanho.repeticoes", 200);
+        int carros = Integer.getInteger("tamanho.carros", 2_000);
+        String saida = System.getProperty("tamanho.saida",
+                "tamanho-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        List<Resultado> resultados = new ArrayList<>();
+        try (AplicacaoEmExecucao app = AplicacaoEmExecucao.iniciar()) {
+            app.popular(carros, 42);
+            for (String caminho : caminhos) {
+                for (String accept : ACCEPTS) {
+                    for (String encoding : ENCODINGS) {
+                        Map<String, String> cabecalhos = Map.of("Accept", accept, "Accept-Encoding", encoding);
+                        HttpResponse<byte[]> resposta = AplicacaoEmExecucao.exigir(app.get(caminho, cabecalhos), 200);
+                        for (int i = 0; i < repeticoes / 4; i++) {
+                            app.get(caminho, cabecalhos);
+                        }
+                        long inicio = System.nanoTime();
+                        for (int i = 0; i < repeticoes; i++) {
+                            app.get(caminho, cabecalhos);
+                        }
+                        double mediaMs = (System.nanoTime() - inicio) / 1e6 / repeticoes;
+                        Resultado resultado = new Resultado(caminho, accept, encoding,
+                                resposta.headers().firstValue("Content-Encoding").orElse("identity"),
+                                resposta.body().length, mediaMs);
+                        resultados.add(resultado);
+                        System.out.printf("%-30s %-28s %-8s %10d bytes %8.2fms%n",
+                                caminho, accept, resultado.contentEncoding(), resultado.bytes(), mediaMs);
+                    }
+                }
+            }
+        }
+        Json.mapper().writerWithDefaultPrettyPrinter().writeValue(new File(saida), resultados);
+        System.out.println("Resultado gravado em " + saida);
+    }
+}
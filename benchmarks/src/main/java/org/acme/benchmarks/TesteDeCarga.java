@@ -0,0 +1,135 @@
+package org.acme.benchmarks;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Teste de carga em malha fechada: N clientes simultâneos (threads virtuais) repetem a mesma requisição
+ * durante um intervalo fixo, e o resultado (vazão e latências) de cada caminho/concorrência vai para JSON.
+ * Serve para comparar endpoints (ex.: /carros/search com e sem filtros) ou a mesma aplicação com configurações
+ * diferentes (carga.variantes), ex.: threads de plataforma x virtuais.
+ *
+ * java -cp benchmarks/target/benchmarks.jar org.acme.benchmarks.TesteDeCarga
+ *
+ * Propriedades de sistema (além das de AplicacaoEmExecucao):
+ * carga.caminhos      caminhos separados por vírgula (padrão: pesquisa textual de carros ordenada por avaliação)
+ * carga.concorrencias clientes simultâneos, separados por vírgula (padrão: 16,64,256,1024)
+ * carga.duracao       duração de cada medição, formato ISO-8601 (padrão: PT20S), precedida de um aquecimento de 1/4 disso
+ * carga.carros        carros criados antes do teste (padrão: 10000)
+ * carga.variantes     propriedades do Quarkus de cada variante, separadas por ";"; cada variante sobe uma aplicação
+ *                     nova (padrão: uma variante, sem propriedades extras)
+ * carga.saida         arquivo JSON do resultado (padrão: carga-&lt;data&gt;.json)
+ */
+public final class TesteDeCarga {
+
+    public record Resultado(String variante, String caminho, int concorrencia, long requisicoes, long erros, double porSegundo,
+                            double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private TesteDeCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> caminhos = List.of(System.getProperty("carga.caminhos",
+                "/carros/search?q=civic&sort=avaliacao&size=20").split(","));
+        int[] concorrencias = Arrays.stream(System.getProperty("carga.concorrencias", "16,64,256,1024").split(","))
+                .mapToInt(c -> Integer.parseInt(c.trim()))
+                .toArray();
+        Duration duracao = Duration.parse(System.getProperty("carga.duracao", "PT20S"));
+        int carros = Integer.getInteger("carga.carros", 10_000);
+        List<String> variantes = List.of(System.getProperty("carga.variantes", "").split(";", -1));
+        String saida = System.getProperty("carga.saida",
+                "carga-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (String variante : variantes) {
+            try (AplicacaoEmExecucao app = AplicacaoEmExecucao.iniciar(variante)) {
+                app.popular(carros, 42);
+                for (int concorrencia : concorrencias) {
+                    for (String caminho : caminhos) {
+                        medir(app, variante, caminho, concorrencia, duracao.dividedBy(4));
+                        Resultado resultado = medir(app, variante, caminho, concorrencia, duracao);
+                        resultados.add(resultado);
+                        System.out.printf("%s %-60s c=%-5d %10.1f req/s  p50=%8.2fms  p99=%8.2fms  erros=%d%n",
+                                variante, caminho, concorrencia, resultado.porSegundo(), resultado.p50Ms(), resultado.p99Ms(), resultado.erros());
+                    }
+                }
+            }
+        }
+        Json.mapper().writerWithDefaultPrettyPrinter().writeValue(new File(saida), resultados);
+        System.out.println("Resultado gravado em " + saida);
+    }
+
+    public static Resultado medir(AplicacaoEmExecucao app, String variante, String caminho, int concorrencia, Duration duracao) throws Exception {
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        List<Future<Cliente>> clientes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concorrencia; i++) {
+                clientes.add(executor.submit(() -> {
+                    Cliente cliente = new Cliente();
+                    while (System.nanoTime() < fim) {
+                        long antes = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = app.get(caminho).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        cliente.registrar(System.nanoTime() - antes, ok);
+                    }
+                    return cliente;
+                }));
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long erros = 0;
+        int total = 0;
+        for (Future<Cliente> c : clientes) {
+            erros += c.get().erros;
+            total += c.get().quantidade;
+        }
+        long[] latencias = new long[total];
+        int pos = 0;
+        for (Future<Cliente> c : clientes) {
+            System.arraycopy(c.get().latencias, 0, latencias, pos, c.get().quantidade);
+            pos += c.get().quantidade;
+        }
+        Arrays.sort(latencias);
+        return new Resultado(variante, caminho, concorrencia, total, erros, total / segundos,
+                percentil(latencias, 0.50), percentil(latencias, 0.95), percentil(latencias, 0.99),
+                latencias.length == 0 ? 0 : latencias[latencias.length - 1] / 1e6);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+
+    private static final class Cliente {
+        long[] latencias = new long[1024];
+        int quantidade;
+        long erros;
+
+        void registrar(long nanos, boolean ok) {
+            if (quantidade == latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade * 2);
+            }
+            latencias[quantidade++] = nanos;
+            if (!ok) {
+                erros++;
+            }
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package org.acme;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
+@Cacheable
 public class Acessorio extends PanacheEntityBase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     public Long id;
 
+    @Version
+    @Schema(readOnly = true)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long versao;
+
     @NotBlank(message = "O nome do acessório não pode ser vazio")
     @Size(min = 2, max = 50, message = "Nome do acessório deve ter entre 2 e 50 caracteres")
     public String nome;
@@ -31,4 +43,25 @@ public class Acessorio extends PanacheEntityBase {
         this.nome = nome;
         this.descricao = descricao;
     }
+
+    public static List<Long> idsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return Acessorio.getEntityManager()
+                .createQuery("select a.id from Acessorio a where a.id in ?1", Long.class)
+                .setParameter(1, ids)
+                .getResultList();
+    }
+
+    /**
+     * Quantos carros têm o acessório. Conta direto em carro_acessorio, pelo índice (acessorio_id, carro_id), sem
+     * passar pela tabela Carro.
+     */
+    public static long carrosVinculados(Long id) {
+        return ((Number) Acessorio.getEntityManager()
+                .createNativeQuery("select count(*) from carro_acessorio where acessorio_id = ?1")
+                .setParameter(1, id)
+                .getSingleResult()).longValue();
+    }
 }
@@ -1,11 +1,24 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -14,12 +27,59 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @Path("/acessorios")
+@RunOnVirtualThread
 public class AcessorioResource {
+
+    private static final Map<String, SearchCursor.SortKey<AcessorioView>> SORT_KEYS = Map.of(
+            "id", new SearchCursor.SortKey<>(Long.class, false, a -> a.id()),
+            "nome", new SearchCursor.SortKey<>(String.class, false, a -> a.nome()),
+            "descricao", new SearchCursor.SortKey<>(String.class, true, a -> a.descricao())
+    );
+
+    // Tudo o que aparece no JSON de um carro (GET /acessorios/{id}/carros).
+    private static final Class<?>[] TIPOS_CARROS = {Carro.class, Marca.class, FichaMarca.class, Acessorio.class};
+
+    // Percorre o índice (acessorio_id, carro_id) de carro_acessorio, já na ordem de id do carro.
+    private static final String FILTRO_CARROS = "id in (select c2.id from Carro c2 join c2.acessorios a where a.id = ?1)";
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    MetricasPesquisa metricasPesquisa;
+
+    @Inject
+    IndiceTextual indiceTextual;
+
+    @Inject
+    PaginacaoIndice paginacaoIndice;
+
+    @Inject
+    ExportWriter exportWriter;
+
+    @Inject
+    VersoesColecao versoesColecao;
+
+    @Inject
+    Event<EntidadeAlterada> alteracoes;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(
             summary = "Retorna todos os acessórios (getAll)",
             description = "Retorna uma lista de acessórios por padrão no formato JSON"
@@ -29,11 +89,27 @@ public class AcessorioResource {
             description = "Lista retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Acessorio.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = AcessorioView.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll(){
-        return Response.ok(Acessorio.listAll()).build();
+    @APIResponse(responseCode = "304", description = "Lista não modificada desde a ETag enviada em If-None-Match")
+    public Response getAll(
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,nome); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context Request request,
+            @Context UriInfo uriInfo){
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, AcessorioView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, Acessorio.class);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        return Response.ok(campos.aplicar(AcessorioView.listar(campos, "", Sort.by("id"), List.of(), null))).tag(etag).build();
     }
 
     @GET
@@ -47,7 +123,7 @@ public class AcessorioResource {
             description = "Item retornado com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Acessorio.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = AcessorioView.class)
             )
     )
     @APIResponse(
@@ -57,17 +133,148 @@ public class AcessorioResource {
                     mediaType = "text/plain",
                     schema = @Schema(implementation = String.class))
     )
+    @APIResponse(responseCode = "304", description = "Item não modificado desde a ETag enviada em If-None-Match")
     public Response getById(
             @Parameter(description = "Id do acessório a ser pesquisado", required = true)
-            @PathParam("id") long id){
-        Acessorio entity = Acessorio.findById(id);
-        if(entity == null){
+            @PathParam("id") long id,
+            @Context Request request){
+        Optional<AcessorioView> acessorio = AcessorioView.buscar(id);
+        if(acessorio.isEmpty()){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(entity).build();
+        EntityTag etag = ETags.de(acessorio.get());
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        return Response.ok(acessorio.get()).tag(etag).build();
     }
 
     @GET
+    @Path("{id}/carros")
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
+    @Operation(
+            summary = "Retorna os carros que têm o acessório",
+            description = "Lista paginada em ordem de id, lida pelo índice (acessorio_id, carro_id) de carro_acessorio"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Lista retornada com sucesso",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = SearchCarroResponse.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Paginação, cursor ou campos inválidos",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Item não encontrado",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    public Response getCarros(
+            @Parameter(description = "Id do acessório", required = true)
+            @PathParam("id") long id,
+            @Parameter(description = "Define qual página será retornada na response")
+            @QueryParam("page") @DefaultValue("0") int page,
+            @Parameter(description = "Define quantos objetos serão retornados por query")
+            @QueryParam("size") @DefaultValue("20") int size,
+            @Parameter(description = "Cursor opaco (NextCursor) para paginação por keyset; vazio inicia do começo")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,modelo); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context UriInfo uriInfo,
+            @Context Request request){
+        if(Acessorio.findById(id) == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if(size < 1){
+            return Response.status(Response.Status.BAD_REQUEST).entity("size deve ser maior que zero").build();
+        }
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, CarroView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_CARROS);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+
+        int effectivePage = Math.max(page, 0);
+        SearchCursor.SortKey<CarroView> sortKey = CarroResource.SORT_KEYS.get("id");
+        Sort sort = SearchCursor.sort("id", false, sortKey);
+        List<Object> params = new ArrayList<>(List.of(id));
+        long total = Acessorio.carrosVinculados(id);
+        int totalPages = (int) Math.ceil((double) total / size);
+
+        var response = new SearchCarroResponse();
+        List<CarroView> carros;
+        if(cursor == null){
+            carros = CarroView.listar(campos, FILTRO_CARROS, sort, params, Page.of(effectivePage, size));
+            response.HasMore = effectivePage < totalPages - 1;
+        } else {
+            String filtro = FILTRO_CARROS;
+            if(!cursor.isBlank()){
+                try {
+                    filtro += " and " + SearchCursor.decode(cursor, "id", false, sortKey).predicate(params, sortKey);
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+                }
+            }
+            carros = CarroView.listar(campos, filtro, sort, params, Page.ofSize(size + 1));
+            response.HasMore = carros.size() > size;
+            if(response.HasMore){
+                carros = carros.subList(0, size);
+            }
+        }
+
+        response.Carros = carros;
+        response.TotalCarros = total;
+        response.TotalPages = totalPages;
+        if(response.HasMore && !carros.isEmpty()){
+            CarroView last = carros.get(carros.size() - 1);
+            response.NextCursor = SearchCursor.after("id", false, sortKey, last, last.id()).encode();
+            response.NextPage = (cursor == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1)
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor))
+                    .build().toString();
+        } else {
+            response.NextPage = "";
+        }
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
+
+    @GET
+    @Path("/export")
+    @Produces({ExportWriter.NDJSON, ExportWriter.CSV})
+    @Operation(
+            summary = "Exporta todos os acessórios em streaming (export)",
+            description = "Escreve os acessórios incrementalmente em NDJSON ou CSV, com uso de memória constante independente do tamanho da tabela"
+    )
+    @APIResponse(responseCode = "200", description = "Exportação iniciada")
+    @APIResponse(responseCode = "400", description = "Formato inválido")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String formato){
+        return exportWriter.exportar(formato, "acessorios",
+                () -> Acessorio.findAll(Sort.by("id")),
+                lote -> {},
+                List.of("id", "nome", "descricao"),
+                (Acessorio a) -> Arrays.asList(a.id, a.nome, a.descricao));
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(
             summary = "Retorna os acessórios conforme o sistema de pesquisa (search)",
             description = "Retorna uma lista de acessórios filtrada conforme a pesquisa por padrão no formato JSON"
@@ -77,53 +284,145 @@ public class AcessorioResource {
             description = "Item retornado com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Acessorio.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchAcessorioResponse.class)
             )
     )
     @Path("/search")
     public Response search(
             @Parameter(description = "Query de buscar por nome ou descrição")
             @QueryParam("q") String q,
-            @Parameter(description = "Campo de ordenação da lista de retorno")
+            @Parameter(description = "Campo de ordenação da lista de retorno; 'relevancia' ordena pelo casamento com q")
             @QueryParam("sort") @DefaultValue("id") String sort,
             @Parameter(description = "Esquema de filtragem de acessórios por ordem crescente ou decrescente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @Parameter(description = "Define qual página será retornada na response")
             @QueryParam("page") @DefaultValue("0") int page,
             @Parameter(description = "Define quantos objetos serão retornados por query")
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @Parameter(description = "Cursor opaco (NextCursor) para paginação por keyset; vazio inicia do começo")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,nome); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context UriInfo uriInfo,
+            @Context Request request
     ){
-        Set<String> allowed = Set.of("id", "nome", "descricao");
-        if(!allowed.contains(sort)){
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, AcessorioView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, Acessorio.class);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+
+        Timer.Sample amostra = metricasPesquisa.iniciar();
+        int effectivePage = Math.max(page, 0);
+        String termo = SearchCountCache.normalize(q);
+        List<IndiceTextual.Resultado> encontrados = termo.isEmpty() ? null : indiceTextual.buscar(Acessorio.class, termo);
+
+        if(encontrados != null && IndiceTextual.RELEVANCIA.equals(sort)){
+            PaginacaoIndice.Pagina<AcessorioView> pagina;
+            try {
+                pagina = paginacaoIndice.porRelevancia(encontrados, effectivePage, size, cursor,
+                        ids -> AcessorioView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), AcessorioView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, "indice", IndiceTextual.RELEVANCIA, cursor, campos, etag, amostra);
+        }
+        if(!SORT_KEYS.containsKey(sort)){
             sort = "id";
         }
+        boolean desc = "desc".equalsIgnoreCase(direction);
+        SearchCursor.SortKey<AcessorioView> sortKey = SORT_KEYS.get(sort);
+        Sort sortObj = SearchCursor.sort(sort, desc, sortKey);
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        if (encontrados != null && !indiceTextual.cabeNaConsulta(encontrados)) {
+            PaginacaoIndice.Pagina<AcessorioView> pagina;
+            try {
+                pagina = paginacaoIndice.porCampo(Acessorio.class, encontrados, sort, desc, sortKey, effectivePage, size, cursor,
+                        ids -> AcessorioView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), AcessorioView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, "indice", sort, cursor, campos, etag, amostra);
+        }
 
-        int effectivePage = Math.max(page, 0);
+        String filtro = "";
+        String formaFiltro = "nenhum";
+        List<Object> params = new ArrayList<>();
 
-        PanacheQuery<Acessorio> query;
+        if (encontrados != null) {
+            if (!encontrados.isEmpty()) {
+                params.add(IndiceTextual.ids(encontrados));
+            }
+            filtro = encontrados.isEmpty() ? "1 = 0" : "id in ?1";
+            formaFiltro = "indice";
+        }
 
-        if (q == null || q.isBlank()) {
-            query = Acessorio.findAll(sortObj);
+        PanacheQuery<Acessorio> query = filtro.isEmpty() ? Acessorio.findAll(sortObj) : Acessorio.find(filtro, sortObj, params.toArray());
+        long total = "indice".equals(formaFiltro) ? encontrados.size() : countCache.count(Acessorio.class, termo, query::count);
+        int totalPages = (int) Math.ceil((double) total / size);
+
+        var response = new SearchAcessorioResponse();
+        List<AcessorioView> acessorios;
+        if (cursor == null) {
+            acessorios = AcessorioView.listar(campos, filtro, sortObj, params, Page.of(effectivePage, size));
+            response.HasMore = effectivePage < totalPages - 1;
+        } else {
+            if (!cursor.isBlank()) {
+                SearchCursor after;
+                try {
+                    after = SearchCursor.decode(cursor, sort, desc, sortKey);
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+                }
+                String seek = after.predicate(params, sortKey);
+                filtro = filtro.isEmpty() ? seek : "(" + filtro + ") and " + seek;
+            }
+            acessorios = AcessorioView.listar(campos, filtro, sortObj, params, Page.ofSize(size + 1));
+            response.HasMore = acessorios.size() > size;
+            if (response.HasMore) {
+                acessorios = acessorios.subList(0, size);
+            }
+        }
+
+        response.Acessorios = acessorios;
+        response.TotalAcessorios = total;
+        response.TotalPages = totalPages;
+        if (response.HasMore && !acessorios.isEmpty()) {
+            AcessorioView last = acessorios.get(acessorios.size() - 1);
+            response.NextCursor = SearchCursor.after(sort, desc, sortKey, last, last.id()).encode();
+            response.NextPage = (cursor == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1)
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor))
+                    .build().toString();
         } else {
-            query = Acessorio.find(
-                    "lower(nome) like ?1 or lower(descricao) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+            response.NextPage = "";
         }
 
-        List<Acessorio> acessorios = query.page(effectivePage, size).list();
+        metricasPesquisa.registrar(amostra, "acessorios", formaFiltro, sort, cursor != null, acessorios.size(), total);
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
 
+    /**
+     * Resposta das páginas montadas por PaginacaoIndice: relevância ou resultados do índice acima de busca.indice.max-ids.
+     */
+    private Response responderIndice(PaginacaoIndice.Pagina<AcessorioView> pagina, String formaFiltro, String sort, String cursor,
+                                     CamposEsparsos campos, EntityTag etag, Timer.Sample amostra){
         var response = new SearchAcessorioResponse();
-        response.Acessorios = acessorios;
-        response.TotalAcessorios = query.list().size();
-        response.TotalPages = query.pageCount();
-        response.HasMore = effectivePage < query.pageCount() - 1;
-        response.NextPage = response.HasMore ? "http://localhost:8080/acessorios/search?q="+(q != null ? q : "")+"&page="+(effectivePage + 1) + (size > 0 ? "&size="+size : "") : "";
+        response.Acessorios = pagina.itens();
+        response.TotalAcessorios = pagina.total();
+        response.TotalPages = pagina.totalPages();
+        response.HasMore = pagina.temMais();
+        response.NextCursor = pagina.proximoCursor();
+        response.NextPage = pagina.proximaPagina();
 
-        return Response.ok(response).build();
+        metricasPesquisa.registrar(amostra, "acessorios", formaFiltro, sort, cursor != null, pagina.itens().size(), pagina.total());
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
     }
 
     @POST
@@ -155,6 +454,7 @@ public class AcessorioResource {
     @Transactional
     public Response insert(@Valid Acessorio acessorio){
         Acessorio.persist(acessorio);
+        alteracoes.fire(EntidadeAlterada.gravada(Acessorio.class, acessorio.id, acessorio));
         return Response.status(Response.Status.CREATED).build();
     }
 
@@ -191,14 +491,15 @@ public class AcessorioResource {
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        long carrosVinculados = Carro.count("?1 MEMBER OF acessorios", entity);
+        long carrosVinculados = Acessorio.carrosVinculados(id);
         if(carrosVinculados > 0){
             return Response.status(Response.Status.CONFLICT)
                     .entity("Não é possível deletar o acessório. Existem " + carrosVinculados + " carro(s) vinculado(s).")
                     .build();
         }
 
-        Acessorio.deleteById(id);
+        entity.delete();
+        alteracoes.fire(EntidadeAlterada.removida(Acessorio.class, id));
         return Response.noContent().build();
     }
 
@@ -229,16 +530,98 @@ public class AcessorioResource {
                     mediaType = "text/plain",
                     schema = @Schema(implementation = String.class))
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "A ETag enviada em If-Match não corresponde mais ao item",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
     @Transactional
     @Path("{id}")
-    public Response update(@PathParam("id") long id, @Valid Acessorio newAcessorio){
+    public Response update(@PathParam("id") long id, @Valid Acessorio newAcessorio, @Context Request request){
         Acessorio entity = Acessorio.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(entity));
+        if(precondicao != null){
+            return precondicao.build();
+        }
         entity.nome = newAcessorio.nome;
         entity.descricao = newAcessorio.descricao;
+        entity.persistAndFlush();
+        alteracoes.fire(EntidadeAlterada.gravada(Acessorio.class, entity.id, entity));
+
+        return Response.status(Response.Status.OK).entity(entity).tag(ETags.de(entity)).build();
+    }
+
+    @PATCH
+    @Path("{id}")
+    @Consumes(MergePatch.MEDIA_TYPE)
+    @Operation(
+            summary = "Altera campos de um acessório (merge patch)",
+            description = "Aplica um JSON Merge Patch: só os campos enviados mudam"
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = MergePatch.MEDIA_TYPE,
+                    schema = @Schema(implementation = Acessorio.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Item editado com sucesso",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Acessorio.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Patch inválido ou campo não alterável",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Item não encontrado",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @APIResponse(
+            responseCode = "412",
+            description = "A ETag enviada em If-Match não corresponde mais ao item",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @Transactional
+    public Response patch(@PathParam("id") long id, InputStream corpo, @Context Request request){
+        Acessorio entity = Acessorio.findById(id);
+        if(entity == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(entity));
+        if(precondicao != null){
+            return precondicao.build();
+        }
+        try {
+            MergePatch.ler(objectMapper, corpo).aplicar(objectMapper, entity, Set.of("nome", "descricao"), Set.of());
+            String violacoes = MergePatch.violacoes(validator, entity);
+            if(violacoes != null){
+                throw new IllegalArgumentException(violacoes);
+            }
+        } catch (IllegalArgumentException e) {
+            // O acessório gerenciado já pode ter sido alterado: nada disso pode ser commitado.
+            QuarkusTransaction.setRollbackOnly();
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        entity.persistAndFlush();
+        alteracoes.fire(EntidadeAlterada.gravada(Acessorio.class, entity.id, entity));
 
-        return Response.status(Response.Status.OK).entity(entity).build();
+        return Response.status(Response.Status.OK).entity(entity).tag(ETags.de(entity)).build();
     }
 }
@@ -0,0 +1,73 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Representação de leitura de um acessório (mesmo JSON da entidade), projetada direto da consulta:
+ * nada fica gerenciado pela sessão nem passa pelo dirty checking.
+ */
+@JsonFilter(CamposEsparsos.FILTRO)
+public record AcessorioView(Long id, long versao, String nome, String descricao) {
+
+    private static final int LOTE_IDS = 1000;
+
+    public static AcessorioView de(Acessorio acessorio) {
+        return new AcessorioView(acessorio.id, acessorio.versao, acessorio.nome, acessorio.descricao);
+    }
+
+    /**
+     * Executa a consulta de acessórios (com filtro, ordenação e página já definidos) como projeção.
+     */
+    public static List<AcessorioView> listar(PanacheQuery<Acessorio> query) {
+        return query.withHint(HibernateHints.HINT_CACHEABLE, true).project(AcessorioView.class).list();
+    }
+
+    /**
+     * Acessórios que atendem ao filtro (HQL sobre Acessorio, sem alias, parâmetros posicionais) na ordem e página
+     * pedidas; pagina nula traz todos. Com ?fields= o SELECT leva só o id, os campos pedidos e os da ordenação.
+     */
+    public static List<AcessorioView> listar(CamposEsparsos campos, String filtro, Sort sort, List<Object> params, Page pagina) {
+        if (campos.todos()) {
+            PanacheQuery<Acessorio> query = filtro.isEmpty() ? Acessorio.findAll(sort) : Acessorio.find(filtro, sort, params.toArray());
+            return listar(pagina == null ? query : query.page(pagina));
+        }
+        return CamposEsparsos.consultar(Acessorio.class, campos.colunas(AcessorioView.class, sort), filtro, sort, params, pagina)
+                .stream()
+                .map(l -> CamposEsparsos.instanciar(AcessorioView.class, l))
+                .toList();
+    }
+
+    public static Optional<AcessorioView> buscar(long id) {
+        return listar(Acessorio.find("id", id)).stream().findFirst();
+    }
+
+    /**
+     * Acessórios de cada carro, em ordem de id, numa consulta por lote de ids de carro.
+     */
+    static Map<Long, List<AcessorioView>> porCarro(List<Long> carroIds) {
+        Map<Long, List<AcessorioView>> porCarro = new HashMap<>();
+        for (int i = 0; i < carroIds.size(); i += LOTE_IDS) {
+            TypedQuery<Object[]> query = Carro.getEntityManager().createQuery(
+                    "select c.id, a.id, a.versao, a.nome, a.descricao from Carro c join c.acessorios a where c.id in ?1", Object[].class);
+            query.setParameter(1, carroIds.subList(i, Math.min(i + LOTE_IDS, carroIds.size())));
+            for (Object[] linha : query.getResultList()) {
+                porCarro.computeIfAbsent((Long) linha[0], id -> new ArrayList<>())
+                        .add(new AcessorioView((Long) linha[1], (Long) linha[2], (String) linha[3], (String) linha[4]));
+            }
+        }
+        porCarro.values().forEach(acessorios -> acessorios.sort(Comparator.comparing(AcessorioView::id)));
+        return porCarro;
+    }
+}
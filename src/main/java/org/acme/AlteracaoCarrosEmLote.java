@@ -0,0 +1,60 @@
+package org.acme;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corpo de PATCH /carros: os campos informados (não nulos) passam a valer para todos os carros do filtro.
+ * As constraints são as mesmas de Carro.
+ */
+public class AlteracaoCarrosEmLote {
+
+    // Mesmo @NotBlank de Carro, mas só quando a descrição é enviada (null = não alterar).
+    @Pattern(regexp = "(?s).*\\S.*", message = "A descrição é obrigatória")
+    @Size(max = 2000)
+    public String descricao;
+
+    @Min(value = 1900, message = "Ano de fabricação inválido")
+    public Integer anoFabricacao;
+
+    @DecimalMin(value = "0.0", inclusive = true, message = "Avaliação mínima é 0.0")
+    @DecimalMax(value = "10.0", inclusive = true, message = "Avaliação máxima é 10.0")
+    public Double avaliacao;
+
+    @Min(value = 0, message = "Cilindradas não podem ser negativas")
+    public Integer cilindradas;
+
+    public Long marcaId;
+
+    public boolean vazia() {
+        return descricao == null && anoFabricacao == null && avaliacao == null && cilindradas == null && marcaId == null;
+    }
+
+    /**
+     * Monta o "set" do update com parâmetros posicionais a partir de params.size() + 1.
+     */
+    public String atribuicoes(List<Object> params) {
+        List<String> partes = new ArrayList<>();
+        atribuir(partes, params, "descricao", descricao);
+        atribuir(partes, params, "anoFabricacao", anoFabricacao);
+        atribuir(partes, params, "avaliacao", avaliacao);
+        atribuir(partes, params, "cilindradas", cilindradas);
+        if (marcaId != null) {
+            atribuir(partes, params, "marca", Carro.getEntityManager().getReference(Marca.class, marcaId));
+        }
+        return String.join(", ", partes);
+    }
+
+    private static void atribuir(List<String> partes, List<Object> params, String campo, Object valor) {
+        if (valor != null) {
+            params.add(valor);
+            partes.add(campo + " = ?" + params.size());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkCarroResponse {
+    public long Inseridos;
+    public long Rejeitados;
+    public List<ErroLinha> Erros = new ArrayList<>();
+
+    public static class ErroLinha {
+        public long Linha;
+        public List<String> Mensagens;
+
+        public ErroLinha() {}
+
+        public ErroLinha(long linha, List<String> mensagens) {
+            this.Linha = linha;
+            this.Mensagens = mensagens;
+        }
+    }
+}
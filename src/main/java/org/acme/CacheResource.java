@@ -0,0 +1,68 @@
+package org.acme;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+
+@Path("/cache")
+@Tag(name = "Cache", description = "Estatísticas do cache de segundo nível do Hibernate e dos carros em memória")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheResource {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    CarrosQuentes carrosQuentes;
+
+    @GET
+    @Path("/estatisticas")
+    @Operation(
+            summary = "Retorna as estatísticas do cache de segundo nível",
+            description = "Hits, misses e puts por região (Marca, FichaMarca, Acessorio, Carro.acessorios e consultas) e do cache de carros serializados"
+    )
+    public CacheStatsResponse estatisticas() {
+        Statistics stats = sessionFactory.getStatistics();
+
+        var response = new CacheStatsResponse();
+        response.EstatisticasHabilitadas = stats.isStatisticsEnabled();
+        response.QueryCacheHits = stats.getQueryCacheHitCount();
+        response.QueryCacheMisses = stats.getQueryCacheMissCount();
+        response.QueryCachePuts = stats.getQueryCachePutCount();
+        response.ConsultasExecutadas = stats.getQueryExecutionCount();
+        response.StatementsPreparados = stats.getPrepareStatementCount();
+
+        Arrays.stream(stats.getSecondLevelCacheRegionNames()).sorted().forEach(nome -> {
+            CacheRegionStatistics regiao = stats.getCacheRegionStatistics(nome);
+            if (regiao == null) {
+                return;
+            }
+            var item = new CacheStatsResponse.Regiao();
+            item.Nome = nome;
+            item.Hits = regiao.getHitCount();
+            item.Misses = regiao.getMissCount();
+            item.Puts = regiao.getPutCount();
+            item.ElementosEmMemoria = regiao.getElementCountInMemory();
+            response.Regioes.add(item);
+        });
+
+        CacheStats quentes = carrosQuentes.estatisticas();
+        response.CarrosEmMemoria.Entradas = carrosQuentes.entradas();
+        response.CarrosEmMemoria.Bytes = carrosQuentes.bytes();
+        response.CarrosEmMemoria.Hits = quentes.hitCount();
+        response.CarrosEmMemoria.Misses = quentes.missCount();
+        response.CarrosEmMemoria.TaxaDeAcerto = quentes.hitRate();
+        response.CarrosEmMemoria.Removidos = quentes.evictionCount();
+        return response;
+    }
+}
@@ -0,0 +1,32 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CacheStatsResponse {
+    public boolean EstatisticasHabilitadas;
+    public List<Regiao> Regioes = new ArrayList<>();
+    public long QueryCacheHits;
+    public long QueryCacheMisses;
+    public long QueryCachePuts;
+    public long ConsultasExecutadas;
+    public long StatementsPreparados;
+    public CarrosEmMemoria CarrosEmMemoria = new CarrosEmMemoria();
+
+    public static class Regiao {
+        public String Nome;
+        public long Hits;
+        public long Misses;
+        public long Puts;
+        public long ElementosEmMemoria;
+    }
+
+    public static class CarrosEmMemoria {
+        public long Entradas;
+        public long Bytes;
+        public long Hits;
+        public long Misses;
+        public double TaxaDeAcerto;
+        public long Removidos;
+    }
+}
@@ -0,0 +1,267 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import jakarta.inject.Singleton;
+import jakarta.persistence.TypedQuery;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Campos pedidos em ?fields= (ex.: id,modelo,marca.nomeDaMarca), agrupados por tipo de view. Definem as colunas do
+ * SELECT das listas e o que o Jackson escreve: as views usam o filtro {@link #FILTRO}, que só deixa passar os campos
+ * pedidos quando a resposta foi embrulhada por {@link #aplicar(Object)}. Um campo aninhado sem subcampos ("marca")
+ * traz o objeto inteiro.
+ */
+public final class CamposEsparsos {
+
+    public static final String FILTRO = "campos";
+
+    private static final CamposEsparsos TODOS = new CamposEsparsos(Map.of());
+    private static final Map<Class<?>, Constructor<?>> CONSTRUTORES = new ConcurrentHashMap<>();
+
+    // Tipo da view -> campos pedidos; um tipo ausente é escrito inteiro.
+    private final Map<Class<?>, Set<String>> porTipo;
+
+    private CamposEsparsos(Map<Class<?>, Set<String>> porTipo) {
+        this.porTipo = porTipo;
+    }
+
+    /**
+     * Interpreta ?fields= a partir da view raiz. Vazio ou ausente significa todos os campos.
+     *
+     * @throws IllegalArgumentException se algum caminho não existir na view
+     */
+    public static CamposEsparsos de(String fields, Class<? extends Record> raiz) {
+        if (fields == null || fields.isBlank()) {
+            return TODOS;
+        }
+        Map<Class<?>, Set<String>> porTipo = new HashMap<>();
+        Set<Class<?>> inteiros = new HashSet<>();
+        for (String caminho : fields.split(",")) {
+            caminho = caminho.trim();
+            if (caminho.isEmpty()) {
+                continue;
+            }
+            Class<?> tipo = raiz;
+            String[] partes = caminho.split("\\.", -1);
+            for (int i = 0; i < partes.length; i++) {
+                RecordComponent componente = componente(tipo, partes[i]);
+                if (componente == null) {
+                    throw new IllegalArgumentException("Campo desconhecido em fields: " + caminho);
+                }
+                porTipo.computeIfAbsent(tipo, t -> new LinkedHashSet<>()).add(partes[i]);
+                Class<?> aninhado = tipoAninhado(componente);
+                if (i == partes.length - 1) {
+                    if (aninhado != null) {
+                        inteiros.add(aninhado);
+                    }
+                } else if (aninhado == null) {
+                    throw new IllegalArgumentException("Campo sem subcampos em fields: " + caminho);
+                } else {
+                    tipo = aninhado;
+                }
+            }
+        }
+        if (porTipo.isEmpty()) {
+            return TODOS;
+        }
+        inteiros.remove(raiz);
+        inteiros.forEach(porTipo::remove);
+        return new CamposEsparsos(porTipo);
+    }
+
+    public boolean todos() {
+        return porTipo.isEmpty();
+    }
+
+    public boolean inclui(Class<?> tipo, String campo) {
+        Set<String> campos = porTipo.get(tipo);
+        return campos == null || campos.contains(campo);
+    }
+
+    /**
+     * Embrulha a resposta para que a serialização aplique estes campos; sem ?fields= devolve a própria resposta.
+     */
+    public Object aplicar(Object resposta) {
+        return todos() ? resposta : new Resposta(resposta, this);
+    }
+
+    /**
+     * Colunas escalares da view a selecionar: o id, os campos pedidos e as colunas da ordenação (necessárias para o cursor).
+     */
+    List<String> colunas(Class<? extends Record> view, Sort sort) {
+        Set<String> ordenacao = sort.getColumns().stream().map(Sort.Column::getName).collect(Collectors.toSet());
+        List<String> colunas = new ArrayList<>();
+        colunas.add("id");
+        for (RecordComponent componente : view.getRecordComponents()) {
+            String nome = componente.getName();
+            if (!nome.equals("id") && tipoAninhado(componente) == null && (inclui(view, nome) || ordenacao.contains(nome))) {
+                colunas.add(nome);
+            }
+        }
+        return colunas;
+    }
+
+    /**
+     * Executa "select colunas from entidade where filtro order by sort" e devolve cada linha como coluna -> valor.
+     * O filtro usa os mesmos nomes sem alias e parâmetros posicionais das consultas Panache; pagina nula traz tudo.
+     */
+    static List<Map<String, Object>> consultar(Class<?> entidade, List<String> colunas, String filtro, Sort sort,
+                                               List<Object> params, Page pagina) {
+        StringBuilder hql = new StringBuilder("select ").append(String.join(", ", colunas))
+                .append(" from ").append(entidade.getSimpleName());
+        if (!filtro.isEmpty()) {
+            hql.append(" where ").append(filtro);
+        }
+        hql.append(SearchCursor.orderBy(sort));
+        TypedQuery<Object[]> query = Panache.getEntityManager(entidade).createQuery(hql.toString(), Object[].class);
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        if (pagina != null) {
+            query.setFirstResult(pagina.index * pagina.size).setMaxResults(pagina.size);
+        }
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        for (Object[] valores : query.getResultList()) {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            for (int i = 0; i < colunas.size(); i++) {
+                linha.put(colunas.get(i), valores[i]);
+            }
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    /**
+     * Cria a view pelo construtor canônico; campos ausentes da linha ficam nulos (ou zero, se primitivos).
+     * Eles não chegam ao JSON, porque o filtro os omite.
+     */
+    static <T extends Record> T instanciar(Class<T> view, Map<String, Object> linha) {
+        RecordComponent[] componentes = view.getRecordComponents();
+        Object[] argumentos = new Object[componentes.length];
+        for (int i = 0; i < componentes.length; i++) {
+            Object valor = linha.get(componentes[i].getName());
+            argumentos[i] = valor != null ? valor : padrao(componentes[i].getType());
+        }
+        try {
+            return view.cast(CONSTRUTORES.computeIfAbsent(view, CamposEsparsos::canonico).newInstance(argumentos));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Não foi possível montar " + view.getSimpleName(), e);
+        }
+    }
+
+    static List<Long> ids(Collection<Map<String, Object>> linhas, String coluna) {
+        return linhas.stream().map(l -> (Long) l.get(coluna)).filter(id -> id != null).distinct().toList();
+    }
+
+    /**
+     * Filtros registrados no ObjectMapper: sem {@link #aplicar(Object)} na resposta, as views saem inteiras.
+     */
+    public static FilterProvider filtros() {
+        return new SimpleFilterProvider().addFilter(FILTRO, new Filtro());
+    }
+
+    private static RecordComponent componente(Class<?> tipo, String nome) {
+        return Arrays.stream(tipo.getRecordComponents()).filter(c -> c.getName().equals(nome)).findFirst().orElse(null);
+    }
+
+    private static Class<?> tipoAninhado(RecordComponent componente) {
+        if (componente.getType().isRecord()) {
+            return componente.getType();
+        }
+        if (List.class.isAssignableFrom(componente.getType())
+                && componente.getGenericType() instanceof ParameterizedType lista
+                && lista.getActualTypeArguments()[0] instanceof Class<?> elemento
+                && elemento.isRecord()) {
+            return elemento;
+        }
+        return null;
+    }
+
+    // As views só têm primitivos long, int e double.
+    private static Object padrao(Class<?> tipo) {
+        if (!tipo.isPrimitive()) {
+            return null;
+        }
+        if (tipo == long.class) {
+            return 0L;
+        }
+        return tipo == double.class ? (Object) 0d : (Object) 0;
+    }
+
+    private static Constructor<?> canonico(Class<?> view) {
+        try {
+            return view.getDeclaredConstructor(Arrays.stream(view.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Filtro extends SimpleBeanPropertyFilter {
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+                throws Exception {
+            CamposEsparsos campos = (CamposEsparsos) provider.getAttribute(CamposEsparsos.class);
+            if (campos == null || campos.inclui(pojo.getClass(), writer.getName())) {
+                writer.serializeAsField(pojo, gen, provider);
+            } else if (!gen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, gen, provider);
+            }
+        }
+    }
+
+    /**
+     * Resposta com ?fields=: guarda os campos como atributo da serialização, lido pelo {@link Filtro}, e segue com o
+     * serializador normal. Funciona igual para JSON, CBOR e Smile.
+     */
+    private record Resposta(Object valor, CamposEsparsos campos) implements JsonSerializable {
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+            provider.setAttribute(CamposEsparsos.class, campos);
+            provider.defaultSerializeValue(valor, gen);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+                throws IOException {
+            serialize(gen, provider);
+        }
+    }
+
+    @Singleton
+    static class RegistroFiltros implements ObjectMapperCustomizer {
+        @Override
+        public void customize(ObjectMapper mapper) {
+            mapper.setFilterProvider(filtros());
+        }
+    }
+}
@@ -1,17 +1,46 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_carro_ano", columnList = "anoFabricacao, id"),
+        @Index(name = "idx_carro_avaliacao", columnList = "avaliacao, id"),
+        @Index(name = "idx_carro_cilindradas", columnList = "cilindradas, id"),
+        @Index(name = "idx_carro_marca", columnList = "marca_id, id")
+})
+@NamedEntityGraph(
+        name = Carro.GRAFO_DETALHES,
+        attributeNodes = @NamedAttributeNode(value = "marca", subgraph = "marca"),
+        subgraphs = @NamedSubgraph(name = "marca", attributeNodes = @NamedAttributeNode("perfil"))
+)
 public class Carro extends PanacheEntityBase {
+    public static final String GRAFO_DETALHES = "Carro.detalhes";
+    public static final String PAPEL_ACESSORIOS = "org.acme.Carro.acessorios";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carro_seq")
+    @SequenceGenerator(name = "carro_seq", sequenceName = "carro_seq", allocationSize = 50)
     public Long id;
 
+    @Version
+    @Schema(readOnly = true)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long versao;
+
     @NotBlank(message = "O modelo não pode ser vazio")
     @Size(min = 1, max = 200)
     public String modelo;
@@ -35,10 +64,12 @@ public class Carro extends PanacheEntityBase {
     public Marca marca;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "carro_acessorio",
             joinColumns = @JoinColumn(name = "carro_id"),
-            inverseJoinColumns = @JoinColumn(name = "acessorio_id")
+            inverseJoinColumns = @JoinColumn(name = "acessorio_id"),
+            indexes = @Index(name = "idx_carro_acessorio_acessorio", columnList = "acessorio_id, carro_id")
     )
     public Set<Acessorio> acessorios = new HashSet<>();
 
@@ -52,4 +83,28 @@ public class Carro extends PanacheEntityBase {
         this.avaliacao = avaliacao;
         this.cilindradas = cilindradas;
     }
+
+    /**
+     * Inicializa os acessórios de todos os carros da lista em uma única consulta,
+     * evitando uma query por carro quando a lista é serializada.
+     * Coleções já presentes no cache de segundo nível ficam de fora e são lidas de lá.
+     */
+    public static void carregarAcessorios(List<Carro> carros) {
+        org.hibernate.Cache cache = Carro.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        List<Long> ids = carros.stream()
+                .filter(c -> !Hibernate.isInitialized(c.acessorios))
+                .filter(c -> !cache.containsCollection(PAPEL_ACESSORIOS, c.id))
+                .map(c -> c.id)
+                .toList();
+        if (!ids.isEmpty()) {
+            Carro.find("select distinct c from Carro c left join fetch c.acessorios where c.id in ?1", ids).list();
+        }
+    }
+
+    public static List<Long> idsDaMarca(Long marcaId) {
+        return Carro.getEntityManager()
+                .createQuery("select c.id from Carro c where c.marca.id = ?1", Long.class)
+                .setParameter(1, marcaId)
+                .getResultList();
+    }
 }
@@ -0,0 +1,177 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importação em lote de carros: lê um array JSON ou NDJSON em streaming, valida cada registro com as
+ * mesmas constraints do insert e grava em transações de tamanho fixo, aproveitando o batching JDBC do Hibernate.
+ */
+@ApplicationScoped
+public class CarroBulkImport {
+
+    private static final int LOTE_IDS = 1000;
+
+    @ConfigProperty(name = "carros.bulk.chunk-size", defaultValue = "500")
+    int defaultChunkSize;
+
+    @ConfigProperty(name = "carros.bulk.max-errors", defaultValue = "1000")
+    int maxErrors;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Event<CarrosAlteradosEmLote> alteracoes;
+
+    public BulkCarroResponse importar(InputStream body, int chunkSize) {
+        int tamanhoLote = chunkSize > 0 ? chunkSize : defaultChunkSize;
+        BulkCarroResponse response = new BulkCarroResponse();
+        List<Linha> pendentes = new ArrayList<>(tamanhoLote);
+
+        long linha = 1;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = objectMapper.readTree(parser);
+                Carro carro = converter(node, linha, response);
+                if (carro != null) {
+                    pendentes.add(new Linha(linha, carro));
+                    if (pendentes.size() >= tamanhoLote) {
+                        gravar(pendentes, response);
+                        pendentes.clear();
+                    }
+                }
+                linha++;
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            String detalhe = e instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage();
+            rejeitar(response, linha, List.of("JSON inválido, importação interrompida: " + detalhe));
+        }
+
+        if (!pendentes.isEmpty()) {
+            gravar(pendentes, response);
+        }
+        return response;
+    }
+
+    private Carro converter(JsonNode node, long linha, BulkCarroResponse response) {
+        Carro carro;
+        try {
+            carro = objectMapper.treeToValue(node, Carro.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            rejeitar(response, linha, List.of("Registro inválido: " + e.getMessage()));
+            return null;
+        }
+        if (carro == null) {
+            rejeitar(response, linha, List.of("Registro vazio"));
+            return null;
+        }
+
+        Set<ConstraintViolation<Carro>> violacoes = validator.validate(carro);
+        if (!violacoes.isEmpty()) {
+            rejeitar(response, linha, violacoes.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .toList());
+            return null;
+        }
+        carro.id = null;
+        return carro;
+    }
+
+    private void gravar(List<Linha> lote, BulkCarroResponse response) {
+        List<BulkCarroResponse.ErroLinha> rejeitadas = new ArrayList<>();
+        try {
+            long inseridos = QuarkusTransaction.requiringNew().call(() -> persistirLote(lote, rejeitadas));
+            response.Inseridos += inseridos;
+            rejeitadas.forEach(erro -> rejeitar(response, erro.Linha, erro.Mensagens));
+        } catch (RuntimeException e) {
+            for (Linha l : lote) {
+                rejeitar(response, l.numero(), List.of("Falha ao gravar o lote: " + e.getMessage()));
+            }
+        }
+    }
+
+    private long persistirLote(List<Linha> lote, List<BulkCarroResponse.ErroLinha> rejeitadas) {
+        Set<Long> marcaIds = new HashSet<>();
+        Set<Long> acessorioIds = new HashSet<>();
+        for (Linha l : lote) {
+            if (l.carro().marca != null && l.carro().marca.id != null) {
+                marcaIds.add(l.carro().marca.id);
+            }
+            acessorioIds.addAll(CarroResource.idsDosAcessorios(l.carro().acessorios));
+        }
+        Set<Long> marcasExistentes = new HashSet<>(Marca.idsExistentes(marcaIds));
+        Set<Long> acessoriosExistentes = new HashSet<>(Acessorio.idsExistentes(acessorioIds));
+
+        EntityManager em = Carro.getEntityManager();
+        List<Carro> inseridos = new ArrayList<>(lote.size());
+        for (Linha l : lote) {
+            Carro carro = l.carro();
+            Long marcaId = carro.marca != null ? carro.marca.id : null;
+            Set<Long> ids = CarroResource.idsDosAcessorios(carro.acessorios);
+
+            List<String> erros = new ArrayList<>();
+            if (marcaId != null && !marcasExistentes.contains(marcaId)) {
+                erros.add("Marca com id " + marcaId + " não existe");
+            }
+            String faltando = CarroResource.acessoriosInexistentes(ids, acessoriosExistentes);
+            if (faltando != null) {
+                erros.add(faltando);
+            }
+            if (!erros.isEmpty()) {
+                rejeitadas.add(new BulkCarroResponse.ErroLinha(l.numero(), erros));
+                continue;
+            }
+
+            carro.marca = marcaId != null ? em.getReference(Marca.class, marcaId) : null;
+            carro.acessorios = new HashSet<>();
+            for (Long acessorioId : ids) {
+                carro.acessorios.add(em.getReference(Acessorio.class, acessorioId));
+            }
+            em.persist(carro);
+            inseridos.add(carro);
+        }
+        // Um evento por lote de ids, como em CarrosEmLote: uma mensagem de invalidação em vez de uma por carro.
+        for (int i = 0; i < inseridos.size(); i += LOTE_IDS) {
+            alteracoes.fire(CarrosAlteradosEmLote.inseridos(inseridos.subList(i, Math.min(i + LOTE_IDS, inseridos.size()))));
+        }
+        return inseridos.size();
+    }
+
+    private void rejeitar(BulkCarroResponse response, long linha, List<String> mensagens) {
+        response.Rejeitados++;
+        if (response.Erros.size() < maxErrors) {
+            response.Erros.add(new BulkCarroResponse.ErroLinha(linha, mensagens));
+        }
+    }
+
+    private record Linha(long numero, Carro carro) {
+    }
+}
@@ -1,11 +1,30 @@
 package org.acme;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -13,15 +32,80 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.hibernate.jpa.SpecHints;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 @Path("/carros")
+@RunOnVirtualThread
 public class CarroResource {
 
+    private static final Map<String, SearchCursor.SortKey<CarroView>> SORT_KEYS = Map.of(
+            "id", new SearchCursor.SortKey<>(Long.class, false, c -> c.id()),
+            "modelo", new SearchCursor.SortKey<>(String.class, false, c -> c.modelo()),
+            "anoFabricacao", new SearchCursor.SortKey<>(Integer.class, false, c -> c.anoFabricacao()),
+            "avaliacao", new SearchCursor.SortKey<>(Double.class, false, c -> c.avaliacao()),
+            "cilindradas", new SearchCursor.SortKey<>(Integer.class, false, c -> c.cilindradas())
+    );
+
+    // Tudo o que aparece no JSON de um carro; qualquer alteração nesses tipos muda a ETag das listas.
+    private static final Class<?>[] TIPOS_REPRESENTACAO = {Carro.class, Marca.class, FichaMarca.class, Acessorio.class};
+
+    private static final int LOTE_IDS = 1000;
+
+    private static final Set<String> CAMPOS_PATCH = Set.of("modelo", "descricao", "anoFabricacao", "avaliacao", "cilindradas");
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    MetricasPesquisa metricasPesquisa;
+
+    @Inject
+    IndiceTextual indiceTextual;
+
+    @Inject
+    PaginacaoIndice paginacaoIndice;
+
+    @Inject
+    FacetasCarro facetasCarro;
+
+    @Inject
+    ExportWriter exportWriter;
+
+    @Inject
+    CarroBulkImport bulkImport;
+
+    @Inject
+    VersoesColecao versoesColecao;
+
+    @Inject
+    CarrosQuentes carrosQuentes;
+
+    @Inject
+    CarrosEmLote carrosEmLote;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Event<EntidadeAlterada> alteracoes;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(
             summary = "Retorna todos os carros (getAll)",
             description = "Retorna uma lista de carros por padrão no formato JSON"
@@ -31,11 +115,42 @@ public class CarroResource {
             description = "Lista retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Carro.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = CarroView.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll(){
-        return Response.ok(Carro.listAll()).build();
+    public Response getAll(
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,modelo,marca.nomeDaMarca); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context Request request,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers){
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, CarroView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_REPRESENTACAO);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        if(campos.todos() && RepresentacaoBinaria.preferido(headers.getHeaderString(HttpHeaders.ACCEPT)) == null){
+            // JSON completo: monta o array com o JSON já serializado de cada carro.
+            List<CarrosQuentes.Entrada> carros = carrosQuentes.todos();
+            StreamingOutput json = saida -> {
+                saida.write('[');
+                for(int i = 0; i < carros.size(); i++){
+                    if(i > 0){
+                        saida.write(',');
+                    }
+                    saida.write(carros.get(i).json());
+                }
+                saida.write(']');
+            };
+            return Response.ok(json, MediaType.APPLICATION_JSON_TYPE).tag(etag).build();
+        }
+        return Response.ok(campos.aplicar(CarroView.listar(campos, "", Sort.by("id"), List.of(), null))).tag(etag).build();
     }
 
     @GET
@@ -49,7 +164,7 @@ public class CarroResource {
             description = "Item retornado com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Carro.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = CarroView.class)
             )
     )
     @APIResponse(
@@ -59,17 +174,89 @@ public class CarroResource {
                     mediaType = "text/plain",
                     schema = @Schema(implementation = String.class))
     )
+    @APIResponse(
+            responseCode = "304",
+            description = "Não modificado desde a ETag enviada em If-None-Match"
+    )
     public Response getById(
             @Parameter(description = "Id do carro a ser pesquisado", required = true)
-            @PathParam("id") long id){
-        Carro entity = Carro.findById(id);
-        if(entity == null){
+            @PathParam("id") long id,
+            @Context Request request){
+        Optional<CarrosQuentes.Entrada> carro = carrosQuentes.buscar(id);
+        if(carro.isEmpty()){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(entity).build();
+        EntityTag etag = carro.get().etag();
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        return Response.ok(carro.get().json(), MediaType.APPLICATION_JSON_TYPE).tag(etag).build();
     }
 
     @GET
+    @Path("/export")
+    @Produces({ExportWriter.NDJSON, ExportWriter.CSV})
+    @Operation(
+            summary = "Exporta todos os carros em streaming (export)",
+            description = "Escreve os carros incrementalmente em NDJSON ou CSV, com uso de memória constante independente do tamanho da tabela"
+    )
+    @APIResponse(responseCode = "200", description = "Exportação iniciada")
+    @APIResponse(responseCode = "400", description = "Formato inválido")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String formato){
+        return exportWriter.exportar(formato, "carros",
+                () -> comDetalhes(Carro.findAll(Sort.by("id"))),
+                Carro::carregarAcessorios,
+                List.of("id", "modelo", "descricao", "anoFabricacao", "avaliacao", "cilindradas", "marcaId", "marca", "acessorios"),
+                c -> Arrays.asList(c.id, c.modelo, c.descricao, c.anoFabricacao, c.avaliacao, c.cilindradas,
+                        c.marca != null ? c.marca.id : null,
+                        c.marca != null ? c.marca.nomeDaMarca : null,
+                        c.acessorios.stream().map(a -> a.id).sorted().toList()));
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
+    @Path("/facets")
+    @Operation(
+            summary = "Retorna as contagens por marca, década de fabricação, acessório e faixa de avaliação (facets)",
+            description = "Aceita os mesmos filtros da pesquisa; cada faceta desconsidera o próprio filtro. Calculado em memória, sem consultar o banco"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Facetas calculadas",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = FacetasCarroResponse.class))
+    )
+    @APIResponse(responseCode = "400", description = "Filtros inválidos")
+    public Response facets(
+            @Parameter(description = "Query de busca por modelo, ano de fabricação ou cilindradas")
+            @QueryParam("q") String q,
+            @BeanParam FiltroCarro filtros,
+            @Context UriInfo uriInfo,
+            @Context Request request){
+        String invalido = filtros.validar();
+        if(invalido != null){
+            return Response.status(Response.Status.BAD_REQUEST).entity(invalido).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, Carro.class);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+
+        String termo = SearchCountCache.normalize(q);
+        Integer numero = inteiro(termo);
+        Set<Long> idsTexto = termo.isEmpty() || numero != null
+                ? null
+                : new HashSet<>(IndiceTextual.ids(indiceTextual.buscar(Carro.class, termo)));
+        return Response.ok(facetasCarro.calcular(numero, idsTexto, filtros)).tag(etag).build();
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(
             summary = "Retorna os carros conforme o sistema de pesquisa (search)",
             description = "Retorna uma lista de carros filtrada conforme a pesquisa por padrão no formato JSON"
@@ -79,65 +266,195 @@ public class CarroResource {
             description = "Item retornado com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Carro.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchCarroResponse.class)
             )
     )
     @Path("/search")
     public Response search(
             @Parameter(description = "Query de busca por modelo, ano de fabricação ou cilindradas")
             @QueryParam("q") String q,
-            @Parameter(description = "Campo de ordenação da lista de retorno")
+            @Parameter(description = "Campo de ordenação da lista de retorno; 'relevancia' ordena pelo casamento com q")
             @QueryParam("sort") @DefaultValue("id") String sort,
             @Parameter(description = "Esquema de filtragem de carros por ordem crescente ou decrescente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @Parameter(description = "Define qual página será retornada na response")
             @QueryParam("page") @DefaultValue("0") int page,
             @Parameter(description = "Define quantos objetos serão retornados por query")
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @Parameter(description = "Cursor opaco (NextCursor) para paginação por keyset; vazio inicia do começo")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,modelo,marca.nomeDaMarca); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @BeanParam FiltroCarro filtros,
+            @Context UriInfo uriInfo,
+            @Context Request request
     ){
-        Set<String> allowed = Set.of("id", "modelo", "anoFabricacao", "avaliacao", "cilindradas");
-        if(!allowed.contains(sort)){
-            sort = "id";
+        String invalido = filtros.validar();
+        if(invalido != null){
+            return Response.status(Response.Status.BAD_REQUEST).entity(invalido).build();
+        }
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, CarroView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_REPRESENTACAO);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
-
+        Timer.Sample amostra = metricasPesquisa.iniciar();
         int effectivePage = Math.max(page, 0);
+        String termo = SearchCountCache.normalize(q);
+        Integer numero = inteiro(termo);
+        List<IndiceTextual.Resultado> encontrados = termo.isEmpty() || numero != null ? null : indiceTextual.buscar(Carro.class, termo);
 
-        PanacheQuery<Carro> query;
+        if(encontrados != null && IndiceTextual.RELEVANCIA.equals(sort)){
+            PaginacaoIndice.Pagina<CarroView> pagina;
+            try {
+                pagina = paginacaoIndice.porRelevancia(restringir(encontrados, filtros), effectivePage, size, cursor,
+                        ids -> CarroView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), CarroView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, "indice", IndiceTextual.RELEVANCIA, cursor, campos, etag, amostra);
+        }
+        if(!SORT_KEYS.containsKey(sort)){
+            sort = "id";
+        }
+        boolean desc = "desc".equalsIgnoreCase(direction);
+        SearchCursor.SortKey<CarroView> sortKey = SORT_KEYS.get(sort);
+        Sort sortObj = SearchCursor.sort(sort, desc, sortKey);
 
-        if (q == null || q.isBlank()) {
-            query = Carro.findAll(sortObj);
-        } else {
+        if (encontrados != null && !indiceTextual.cabeNaConsulta(encontrados)) {
+            PaginacaoIndice.Pagina<CarroView> pagina;
             try {
-                int numero = Integer.parseInt(q);
-                query = Carro.find(
-                        "anoFabricacao = ?1 or cilindradas = ?1",
-                        sortObj,
-                        numero
-                );
-            } catch (NumberFormatException e) {
-                query = Carro.find(
-                        "lower(modelo) like ?1",
-                        sortObj,
-                        "%" + q.toLowerCase() + "%"
-                );
+                pagina = paginacaoIndice.porCampo(Carro.class, restringir(encontrados, filtros), sort, desc, sortKey, effectivePage, size, cursor,
+                        ids -> CarroView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), CarroView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, filtros.vazio() ? "indice" : "indice+campos", sort, cursor, campos, etag, amostra);
+        }
+
+        String filtro = "";
+        String formaFiltro = "nenhum";
+        List<Object> params = new ArrayList<>();
+
+        if (numero != null) {
+            params.add(numero);
+            filtro = "(anoFabricacao = ?1 or cilindradas = ?1)";
+            formaFiltro = "numero";
+        } else if (encontrados != null) {
+            if (!encontrados.isEmpty()) {
+                params.add(IndiceTextual.ids(encontrados));
             }
+            filtro = encontrados.isEmpty() ? "1 = 0" : "id in ?1";
+            formaFiltro = "indice";
+        }
+        if (!filtros.vazio()) {
+            String predicado = filtros.predicado(params);
+            filtro = filtro.isEmpty() ? predicado : filtro + " and " + predicado;
         }
 
-        List<Carro> carros = query.page(effectivePage, size).list();
+        PanacheQuery<Carro> query = filtro.isEmpty() ? Carro.findAll(sortObj) : Carro.find(filtro, sortObj, params.toArray());
+        long total = "indice".equals(formaFiltro) && filtros.vazio()
+                ? encontrados.size()
+                : countCache.count(Carro.class, filtros.vazio() ? termo : termo + "|" + filtros.chave(), query::count);
+        int totalPages = (int) Math.ceil((double) total / size);
 
         var response = new SearchCarroResponse();
+        List<CarroView> carros;
+        if (cursor == null) {
+            carros = CarroView.listar(campos, filtro, sortObj, params, Page.of(effectivePage, size));
+            response.HasMore = effectivePage < totalPages - 1;
+        } else {
+            if (!cursor.isBlank()) {
+                SearchCursor after;
+                try {
+                    after = SearchCursor.decode(cursor, sort, desc, sortKey);
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+                }
+                String seek = after.predicate(params, sortKey);
+                filtro = filtro.isEmpty() ? seek : "(" + filtro + ") and " + seek;
+            }
+            carros = CarroView.listar(campos, filtro, sortObj, params, Page.ofSize(size + 1));
+            response.HasMore = carros.size() > size;
+            if (response.HasMore) {
+                carros = carros.subList(0, size);
+            }
+        }
+
         response.Carros = carros;
-        response.TotalCarros = query.list().size();
-        response.TotalPages = query.pageCount();
-        response.HasMore = effectivePage < query.pageCount() - 1;
-        response.NextPage = response.HasMore ? "http://localhost:8080/carros/search?q="+(q != null ? q : "")+"&page="+(effectivePage + 1) + (size > 0 ? "&size="+size : "") : "";
+        response.TotalCarros = total;
+        response.TotalPages = totalPages;
+        if (response.HasMore && !carros.isEmpty()) {
+            CarroView last = carros.get(carros.size() - 1);
+            response.NextCursor = SearchCursor.after(sort, desc, sortKey, last, last.id()).encode();
+            response.NextPage = (cursor == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1)
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor))
+                    .build().toString();
+        } else {
+            response.NextPage = "";
+        }
 
-        return Response.ok(response).build();
+        metricasPesquisa.registrar(amostra, "carros", filtros.vazio() ? formaFiltro : formaFiltro + "+campos", sort, cursor != null, carros.size(), total);
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
+
+    /**
+     * Resposta das páginas montadas por PaginacaoIndice: relevância ou resultados do índice acima de busca.indice.max-ids.
+     */
+    private Response responderIndice(PaginacaoIndice.Pagina<CarroView> pagina, String formaFiltro, String sort, String cursor,
+                                     CamposEsparsos campos, EntityTag etag, Timer.Sample amostra){
+        var response = new SearchCarroResponse();
+        response.Carros = pagina.itens();
+        response.TotalCarros = pagina.total();
+        response.TotalPages = pagina.totalPages();
+        response.HasMore = pagina.temMais();
+        response.NextCursor = pagina.proximoCursor();
+        response.NextPage = pagina.proximaPagina();
+
+        metricasPesquisa.registrar(amostra, "carros", formaFiltro, sort, cursor != null, pagina.itens().size(), pagina.total());
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
+
+    /**
+     * Mantém no ranking só os carros que também atendem aos filtros tipados, consultando o banco em lotes de ids.
+     */
+    private static List<IndiceTextual.Resultado> restringir(List<IndiceTextual.Resultado> ranking, FiltroCarro filtros){
+        if(filtros.vazio() || ranking.isEmpty()){
+            return ranking;
+        }
+        List<Long> ids = IndiceTextual.ids(ranking);
+        Set<Long> permitidos = new HashSet<>();
+        for(int i = 0; i < ids.size(); i += LOTE_IDS){
+            List<Object> params = new ArrayList<>();
+            params.add(ids.subList(i, Math.min(i + LOTE_IDS, ids.size())));
+            TypedQuery<Long> query = Carro.getEntityManager()
+                    .createQuery("select id from Carro where id in ?1 and " + filtros.predicado(params), Long.class);
+            for(int p = 0; p < params.size(); p++){
+                query.setParameter(p + 1, params.get(p));
+            }
+            permitidos.addAll(query.getResultList());
+        }
+        return ranking.stream().filter(r -> permitidos.contains(r.id())).toList();
+    }
+
+    private static Integer inteiro(String termo){
+        try {
+            return termo.isEmpty() ? null : Integer.valueOf(termo);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static PanacheQuery<Carro> comDetalhes(PanacheQuery<Carro> query) {
+        return query.withHint(SpecHints.HINT_SPEC_FETCH_GRAPH, Carro.getEntityManager().getEntityGraph(Carro.GRAFO_DETALHES));
     }
 
     @POST
@@ -169,39 +486,57 @@ public class CarroResource {
     @Transactional
     public Response insert(@Valid Carro carro){
         carro.id = null;
-        if(carro.marca != null && carro.marca.id != null){
-            Marca m = Marca.findById(carro.marca.id);
-            if(m == null){
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("Marca com id " + carro.marca.id + " não existe").build();
-            }
-            carro.marca = m;
-        } else {
-            carro.marca = null;
+        Long marcaId = carro.marca != null ? carro.marca.id : null;
+        Set<Long> acessorioIds = idsDosAcessorios(carro.acessorios);
+
+        List<String> erros = new ArrayList<>();
+        if(marcaId != null && Marca.count("id", marcaId) == 0){
+            erros.add("Marca com id " + marcaId + " não existe");
+        }
+        List<Long> encontrados = Acessorio.idsExistentes(acessorioIds);
+        String faltando = acessoriosInexistentes(acessorioIds, encontrados);
+        if(faltando != null){
+            erros.add(faltando);
+        }
+        if(!erros.isEmpty()){
+            return Response.status(Response.Status.BAD_REQUEST).entity(String.join("; ", erros)).build();
         }
 
-        if(carro.acessorios != null && !carro.acessorios.isEmpty()){
-            Set<Acessorio> resolved = new HashSet<>();
-            for(Acessorio a : carro.acessorios){
-                if(a == null || a.id == 0){
-                    continue;
-                }
-                Acessorio fetched = Acessorio.findById(a.id);
-                if(fetched == null){
-                    return Response.status(Response.Status.BAD_REQUEST)
-                            .entity("Acessório com id " + a.id + " não existe").build();
-                }
-                resolved.add(fetched);
-            }
-            carro.acessorios = resolved;
-        } else {
-            carro.acessorios = new HashSet<>();
+        // Só a chave estrangeira é gravada, então referências bastam.
+        EntityManager em = Carro.getEntityManager();
+        carro.marca = marcaId != null ? em.getReference(Marca.class, marcaId) : null;
+        carro.acessorios = new HashSet<>();
+        for(Long acessorioId : encontrados){
+            carro.acessorios.add(em.getReference(Acessorio.class, acessorioId));
         }
 
         Carro.persist(carro);
+        alteracoes.fire(EntidadeAlterada.gravada(Carro.class, carro.id, carro));
         return Response.status(Response.Status.CREATED).build();
     }
 
+    @POST
+    @Path("/bulk")
+    @Consumes({MediaType.APPLICATION_JSON, "application/x-ndjson"})
+    @Operation(
+            summary = "Importa carros em lote (bulk)",
+            description = "Recebe um array JSON ou NDJSON de carros, lido em streaming, validado registro a registro e gravado em lotes"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Importação processada, com os erros de cada registro rejeitado",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BulkCarroResponse.class))
+    )
+    public Response bulk(
+            InputStream body,
+            @Parameter(description = "Quantidade de carros gravados por transação (padrão: carros.bulk.chunk-size)")
+            @QueryParam("chunkSize") @DefaultValue("0") int chunkSize){
+        BulkCarroResponse response = bulkImport.importar(body, chunkSize);
+        return Response.ok(response).build();
+    }
+
     @DELETE
     @Operation(
             summary = "Remove um registro da lista de carros (delete)",
@@ -224,16 +559,97 @@ public class CarroResource {
     @Transactional
     @Path("{id}")
     public Response delete(@PathParam("id") long id){
-        Carro entity = Carro.findById(id);
-        if(entity == null){
+        if(carrosEmLote.remover(List.of(id)).isEmpty()){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        return Response.noContent().build();
+    }
+
+    @DELETE
+    @Operation(
+            summary = "Remove vários carros de uma vez (delete em lote)",
+            description = "Remove os carros dos ids informados com comandos set-based, sem carregar cada carro"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Quantidade removida e ids que não existiam",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = OperacaoEmLoteResponse.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Ids ausentes ou inválidos",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @Transactional
+    public Response deleteEmLote(
+            @Parameter(description = "Ids dos carros, separados por vírgula ou com o parâmetro repetido (ex.: ids=1,2,3)")
+            @QueryParam("ids") List<String> ids){
+        Set<Long> pedidos = new LinkedHashSet<>();
+        try {
+            for(String valor : ids){
+                for(String id : valor.split(",")){
+                    if(!id.isBlank()){
+                        pedidos.add(Long.parseLong(id.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Id inválido em ids: " + e.getMessage()).build();
+        }
+        if(pedidos.isEmpty()){
+            return Response.status(Response.Status.BAD_REQUEST).entity("Informe os ids dos carros a remover.").build();
+        }
 
-        entity.acessorios.clear();
-        entity.persist();
+        List<Long> removidos = carrosEmLote.remover(pedidos);
+        Set<Long> naoEncontrados = new LinkedHashSet<>(pedidos);
+        removidos.forEach(naoEncontrados::remove);
+        return Response.ok(new OperacaoEmLoteResponse(removidos.size(), new ArrayList<>(naoEncontrados))).build();
+    }
 
-        Carro.deleteById(id);
-        return Response.noContent().build();
+    @PATCH
+    @Operation(
+            summary = "Altera vários carros de uma vez (update em lote)",
+            description = "Aplica os campos informados no corpo a todos os carros que atendem aos filtros, com updates set-based"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Quantidade de carros alterados",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = OperacaoEmLoteResponse.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Sem filtros, sem campos a alterar ou com valores inválidos",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @Transactional
+    public Response updateEmLote(@BeanParam FiltroCarro filtros, @Valid AlteracaoCarrosEmLote alteracao){
+        String erroFiltros = filtros.validar();
+        if(erroFiltros != null){
+            return Response.status(Response.Status.BAD_REQUEST).entity(erroFiltros).build();
+        }
+        // Sem filtro o update valeria para a tabela inteira; isso precisa ser pedido de forma explícita (ex.: anoMin=1900).
+        if(filtros.vazio()){
+            return Response.status(Response.Status.BAD_REQUEST).entity("Informe ao menos um filtro.").build();
+        }
+        if(alteracao == null || alteracao.vazia()){
+            return Response.status(Response.Status.BAD_REQUEST).entity("Informe ao menos um campo a alterar.").build();
+        }
+        if(alteracao.marcaId != null && Marca.count("id", alteracao.marcaId) == 0){
+            return Response.status(Response.Status.BAD_REQUEST).entity("Marca com id " + alteracao.marcaId + " não existe").build();
+        }
+
+        List<Object> params = new ArrayList<>();
+        String filtro = filtros.predicado(params);
+        List<Long> alterados = carrosEmLote.alterar(filtro, params, alteracao);
+        return Response.ok(new OperacaoEmLoteResponse(alterados.size(), List.of())).build();
     }
 
     @PUT
@@ -263,47 +679,189 @@ public class CarroResource {
                     mediaType = "text/plain",
                     schema = @Schema(implementation = String.class))
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "A ETag enviada em If-Match não corresponde mais ao registro",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
     @Transactional
     @Path("{id}")
-    public Response update(@PathParam("id") long id,@Valid Carro newCarro){
+    public Response update(@PathParam("id") long id,@Valid Carro newCarro, @Context Request request){
         Carro entity = Carro.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(entity));
+        if(precondicao != null){
+            return precondicao.build();
+        }
+
+        Long marcaId = newCarro.marca != null ? newCarro.marca.id : null;
+        Set<Long> acessorioIds = idsDosAcessorios(newCarro.acessorios);
+
+        List<String> erros = new ArrayList<>();
+        Marca marca = null;
+        if(marcaId != null){
+            marca = Marca.findById(marcaId);
+            if(marca == null){
+                erros.add("Marca com id " + marcaId + " não existe");
+            }
+        }
+        // O carro atualizado é devolvido na resposta, então os acessórios são carregados por completo.
+        List<Acessorio> acessorios = acessorioIds.isEmpty() ? List.of() : Acessorio.list("id in ?1", acessorioIds);
+        String faltando = acessoriosInexistentes(acessorioIds, acessorios.stream().map(a -> a.id).toList());
+        if(faltando != null){
+            erros.add(faltando);
+        }
+        if(!erros.isEmpty()){
+            return Response.status(Response.Status.BAD_REQUEST).entity(String.join("; ", erros)).build();
+        }
+
         entity.modelo = newCarro.modelo;
         entity.descricao = newCarro.descricao;
         entity.anoFabricacao = newCarro.anoFabricacao;
         entity.avaliacao = newCarro.avaliacao;
         entity.cilindradas = newCarro.cilindradas;
+        entity.marca = marca;
+        // Alterada no lugar: só as linhas de carro_acessorio que mudaram são apagadas ou inseridas.
+        entity.acessorios.removeIf(a -> !acessorioIds.contains(a.id));
+        entity.acessorios.addAll(acessorios);
+
+        entity.persistAndFlush();
+        alteracoes.fire(EntidadeAlterada.gravada(Carro.class, entity.id, entity));
+        return Response.status(Response.Status.OK).entity(entity).tag(ETags.de(entity)).build();
+    }
+
+    @PATCH
+    @Path("{id}")
+    @Consumes(MergePatch.MEDIA_TYPE)
+    @Operation(
+            summary = "Altera campos de um carro (merge patch)",
+            description = "Aplica um JSON Merge Patch: só os campos enviados mudam, e os acessórios são atualizados pela diferença"
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = MergePatch.MEDIA_TYPE,
+                    schema = @Schema(implementation = Carro.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Item editado com sucesso",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Carro.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Patch inválido, campo não alterável ou referência inexistente",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Item não encontrado",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @APIResponse(
+            responseCode = "412",
+            description = "A ETag enviada em If-Match não corresponde mais ao registro",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class))
+    )
+    @Transactional
+    public Response patch(@PathParam("id") long id, InputStream corpo, @Context Request request){
+        Carro entity = Carro.findById(id);
+        if(entity == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(entity));
+        if(precondicao != null){
+            return precondicao.build();
+        }
 
-        if(newCarro.marca != null && newCarro.marca.id != null){
-            Marca m = Marca.findById(newCarro.marca.id);
-            if(m == null){
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("Marca com id " + newCarro.marca.id + " não existe").build();
+        try {
+            MergePatch patch = MergePatch.ler(objectMapper, corpo);
+            patch.aplicar(objectMapper, entity, CAMPOS_PATCH, Set.of("marca", "acessorios"));
+            // Validado antes das consultas de marca e acessórios, que podem fazer o flush do carro.
+            String violacoes = MergePatch.violacoes(validator, entity);
+            if(violacoes != null){
+                throw new IllegalArgumentException(violacoes);
             }
-            entity.marca = m;
-        } else {
-            entity.marca = null;
+            if(patch.contem("marca")){
+                entity.marca = patch.nulo("marca") ? null : marcaDoPatch(patch.valor("marca"));
+            }
+            if(patch.contem("acessorios")){
+                aplicarAcessorios(entity, patch.nulo("acessorios") ? Set.of() : idsDosAcessorios(
+                        objectMapper.convertValue(patch.valor("acessorios"), new TypeReference<Set<Acessorio>>() {})));
+            }
+        } catch (IllegalArgumentException e) {
+            // O carro gerenciado já pode ter sido alterado: nada disso pode ser commitado.
+            QuarkusTransaction.setRollbackOnly();
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+
+        entity.persistAndFlush();
+        alteracoes.fire(EntidadeAlterada.gravada(Carro.class, entity.id, entity));
+        return Response.status(Response.Status.OK).entity(entity).tag(ETags.de(entity)).build();
+    }
+
+    private Marca marcaDoPatch(JsonNode valor){
+        Long marcaId = objectMapper.convertValue(valor, Marca.class).id;
+        if(marcaId == null){
+            throw new IllegalArgumentException("marca: informe o id");
+        }
+        Marca marca = Marca.findById(marcaId);
+        if(marca == null){
+            throw new IllegalArgumentException("Marca com id " + marcaId + " não existe");
+        }
+        return marca;
+    }
+
+    /**
+     * Altera a coleção no lugar, em vez de trocá-la: assim o Hibernate só apaga e insere em carro_acessorio as linhas
+     * que mudaram.
+     */
+    private static void aplicarAcessorios(Carro entity, Set<Long> ids){
+        Set<Long> atuais = idsDosAcessorios(entity.acessorios);
+        Set<Long> novos = new LinkedHashSet<>(ids);
+        novos.removeAll(atuais);
+        List<Acessorio> adicionados = novos.isEmpty() ? List.of() : Acessorio.list("id in ?1", novos);
+        String faltando = acessoriosInexistentes(novos, adicionados.stream().map(a -> a.id).toList());
+        if(faltando != null){
+            throw new IllegalArgumentException(faltando);
         }
+        entity.acessorios.removeIf(a -> !ids.contains(a.id));
+        entity.acessorios.addAll(adicionados);
+    }
 
-        if(newCarro.acessorios != null){
-            Set<Acessorio> resolved = new HashSet<>();
-            for(Acessorio a : newCarro.acessorios){
-                if(a == null || a.id == 0) continue;
-                Acessorio fetched = Acessorio.findById(a.id);
-                if(fetched == null){
-                    return Response.status(Response.Status.BAD_REQUEST)
-                            .entity("Acessório com id " + a.id + " não existe").build();
+    static Set<Long> idsDosAcessorios(Set<Acessorio> acessorios) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if(acessorios != null){
+            for(Acessorio a : acessorios){
+                if(a != null && a.id != null && a.id != 0){
+                    ids.add(a.id);
                 }
-                resolved.add(fetched);
             }
-            entity.acessorios = resolved;
-        } else {
-            entity.acessorios = new HashSet<>();
         }
-        
-        entity.persist();
-        return Response.status(Response.Status.OK).entity(entity).build();
+        return ids;
+    }
+
+    static String acessoriosInexistentes(Set<Long> pedidos, Collection<Long> encontrados) {
+        Set<Long> faltando = new TreeSet<>(pedidos);
+        faltando.removeAll(encontrados);
+        if(faltando.isEmpty()){
+            return null;
+        }
+        return faltando.size() == 1
+                ? "Acessório com id " + faltando.iterator().next() + " não existe"
+                : "Acessórios com ids " + faltando + " não existem";
     }
 }
@@ -0,0 +1,93 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Representação de leitura de um carro com marca, perfil e acessórios (mesmo JSON da entidade).
+ * Os carros são projetados da consulta com o id da marca; marcas e acessórios da página vêm em consultas por ids,
+ * então o número de consultas não depende do tamanho da página e nenhuma entidade fica gerenciada pela sessão.
+ */
+@JsonFilter(CamposEsparsos.FILTRO)
+public record CarroView(Long id, long versao, String modelo, String descricao, int anoFabricacao, double avaliacao,
+                        int cilindradas, MarcaView marca, List<AcessorioView> acessorios) {
+
+    public record Linha(Long id, long versao, String modelo, String descricao, int anoFabricacao, double avaliacao,
+                        int cilindradas, @ProjectedFieldName("marca.id") Long marcaId) {
+    }
+
+    public static CarroView de(Carro carro) {
+        return new CarroView(carro.id, carro.versao, carro.modelo, carro.descricao, carro.anoFabricacao, carro.avaliacao,
+                carro.cilindradas, carro.marca != null ? MarcaView.de(carro.marca) : null,
+                carro.acessorios.stream().map(AcessorioView::de).sorted(Comparator.comparing(AcessorioView::id)).toList());
+    }
+
+    /**
+     * Executa a consulta de carros (com filtro, ordenação e página já definidos) como projeção.
+     */
+    public static List<CarroView> listar(PanacheQuery<Carro> query) {
+        return montar(query.project(Linha.class).list());
+    }
+
+    /**
+     * Carros que atendem ao filtro (HQL sobre Carro, sem alias, parâmetros posicionais) na ordem e página pedidas;
+     * pagina nula traz todos. Com ?fields= o SELECT leva só o id, os campos pedidos e os da ordenação, e marcas,
+     * perfis e acessórios só são consultados se algum campo deles foi pedido.
+     */
+    public static List<CarroView> listar(CamposEsparsos campos, String filtro, Sort sort, List<Object> params, Page pagina) {
+        if (campos.todos()) {
+            PanacheQuery<Carro> query = filtro.isEmpty() ? Carro.findAll(sort) : Carro.find(filtro, sort, params.toArray());
+            return listar(pagina == null ? query : query.page(pagina));
+        }
+        List<String> colunas = campos.colunas(CarroView.class, sort);
+        boolean comMarca = campos.inclui(CarroView.class, "marca");
+        if (comMarca) {
+            colunas.add("marca.id");
+        }
+        List<Map<String, Object>> linhas = CamposEsparsos.consultar(Carro.class, colunas, filtro, sort, params, pagina);
+        if (linhas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MarcaView> marcas = comMarca ? MarcaView.porIds(CamposEsparsos.ids(linhas, "marca.id"), campos) : Map.of();
+        Map<Long, List<AcessorioView>> acessorios = campos.inclui(CarroView.class, "acessorios")
+                ? AcessorioView.porCarro(CamposEsparsos.ids(linhas, "id"))
+                : Map.of();
+        return linhas.stream()
+                .map(l -> {
+                    l.put("marca", marcas.get(l.get("marca.id")));
+                    l.put("acessorios", acessorios.getOrDefault(l.get("id"), List.of()));
+                    return CamposEsparsos.instanciar(CarroView.class, l);
+                })
+                .toList();
+    }
+
+    public static Optional<CarroView> buscar(long id) {
+        return listar(Carro.find("id", id)).stream().findFirst();
+    }
+
+    private static List<CarroView> montar(List<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MarcaView> marcas = MarcaView.porIds(linhas.stream()
+                .map(Linha::marcaId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Map<Long, List<AcessorioView>> acessorios = AcessorioView.porCarro(linhas.stream().map(Linha::id).toList());
+        return linhas.stream()
+                .map(l -> new CarroView(l.id(), l.versao(), l.modelo(), l.descricao(), l.anoFabricacao(), l.avaliacao(),
+                        l.cilindradas(), l.marcaId() != null ? marcas.get(l.marcaId()) : null,
+                        acessorios.getOrDefault(l.id(), List.of())))
+                .toList();
+    }
+}
@@ -0,0 +1,80 @@
+package org.acme;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evento das escritas em lote de carros (CarrosEmLote e CarroBulkImport): um por lote de até 1000 ids, no lugar de um
+ * EntidadeAlterada por carro. carros traz, para os ids que ainda existem, só as colunas que os caches em memória usam,
+ * lidas com consultas escalares (sem carregar entidades); um id ausente de carros foi removido.
+ * Os observadores usam TransactionPhase.AFTER_SUCCESS, como os de EntidadeAlterada.
+ */
+public record CarrosAlteradosEmLote(List<Long> ids, List<Linha> carros, boolean recebido) {
+
+    public record Linha(long id, long versao, String modelo, String descricao, int anoFabricacao, double avaliacao, int cilindradas,
+                        Long marcaId, long[] acessorios) {
+    }
+
+    public static CarrosAlteradosEmLote gravados(List<Long> ids) {
+        return new CarrosAlteradosEmLote(List.copyOf(ids), carregar(ids), false);
+    }
+
+    /**
+     * Carros inseridos na transação (CarroBulkImport): as linhas saem das próprias entidades, sem consulta.
+     */
+    public static CarrosAlteradosEmLote inseridos(List<Carro> carros) {
+        PersistenceUnitUtil util = Carro.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+        return new CarrosAlteradosEmLote(carros.stream().map(c -> c.id).toList(),
+                carros.stream().map(c -> linha(c, util)).toList(), false);
+    }
+
+    public static CarrosAlteradosEmLote removidos(List<Long> ids) {
+        return new CarrosAlteradosEmLote(List.copyOf(ids), List.of(), false);
+    }
+
+    /**
+     * Lote alterado por outra instância, relido do banco. Não é publicado de novo.
+     */
+    public static CarrosAlteradosEmLote recebidos(List<Long> ids) {
+        return new CarrosAlteradosEmLote(List.copyOf(ids), carregar(ids), true);
+    }
+
+    private static List<Linha> carregar(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        EntityManager em = Carro.getEntityManager();
+        Map<Long, long[]> acessorios = new HashMap<>();
+        em.createQuery("select c.id, a.id from Carro c join c.acessorios a where c.id in ?1", Object[].class)
+                .setParameter(1, ids)
+                .getResultList()
+                .forEach(p -> acessorios.merge((Long) p[0], new long[]{(Long) p[1]}, CarrosAlteradosEmLote::concatenar));
+        return em.createQuery("select c.id, c.versao, c.modelo, c.descricao, c.anoFabricacao, c.avaliacao, c.cilindradas, m.id "
+                        + "from Carro c left join c.marca m where c.id in ?1", Object[].class)
+                .setParameter(1, ids)
+                .getResultList()
+                .stream()
+                .map(c -> new Linha((Long) c[0], (Long) c[1], (String) c[2], (String) c[3], (Integer) c[4], (Double) c[5],
+                        (Integer) c[6], (Long) c[7], acessorios.getOrDefault((Long) c[0], new long[0])))
+                .toList();
+    }
+
+    // Marca e acessórios são referências (getReference): os ids saem sem inicializá-las.
+    private static Linha linha(Carro c, PersistenceUnitUtil util) {
+        return new Linha(c.id, c.versao, c.modelo, c.descricao, c.anoFabricacao, c.avaliacao, c.cilindradas,
+                c.marca != null ? (Long) util.getIdentifier(c.marca) : null,
+                c.acessorios.stream().mapToLong(a -> (Long) util.getIdentifier(a)).sorted().toArray());
+    }
+
+    private static long[] concatenar(long[] a, long[] b) {
+        long[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        Arrays.sort(c);
+        return c;
+    }
+}
@@ -0,0 +1,92 @@
+package org.acme;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Remoção e alteração de muitos carros com comandos set-based (delete/update ... where id in), sem carregar nem
+ * gravar cada entidade. Os ids afetados são lidos antes, e cada lote notifica os caches com um único
+ * CarrosAlteradosEmLote. Roda na transação de quem chama.
+ */
+@ApplicationScoped
+public class CarrosEmLote {
+
+    private static final int LOTE_IDS = 1000;
+
+    @Inject
+    Event<CarrosAlteradosEmLote> alteracoes;
+
+    /**
+     * Remove os carros de ids que existem e devolve os ids removidos.
+     */
+    public List<Long> remover(Collection<Long> ids) {
+        EntityManager em = Carro.getEntityManager();
+        List<Long> removidos = new ArrayList<>();
+        for (List<Long> lote : lotes(List.copyOf(ids))) {
+            List<Long> existentes = em.createQuery("select c.id from Carro c where c.id in ?1", Long.class)
+                    .setParameter(1, lote)
+                    .getResultList();
+            if (existentes.isEmpty()) {
+                continue;
+            }
+            // Com o espaço sincronizado, o Hibernate só invalida a região de Carro.acessorios no cache de segundo nível.
+            em.createNativeQuery("delete from carro_acessorio where carro_id in (:ids)")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("carro_acessorio")
+                    .setParameter("ids", existentes)
+                    .executeUpdate();
+            em.createQuery("delete from Carro where id in ?1")
+                    .setParameter(1, existentes)
+                    .executeUpdate();
+            removidos.addAll(existentes);
+            alteracoes.fire(CarrosAlteradosEmLote.removidos(existentes));
+        }
+        return removidos;
+    }
+
+    public List<Long> removerDaMarca(Long marcaId) {
+        return remover(Carro.idsDaMarca(marcaId));
+    }
+
+    /**
+     * Aplica a alteração a todos os carros que atendem ao filtro (mesma sintaxe das consultas Panache) e devolve
+     * os ids alterados. O "update versioned" incrementa a versao, então ETags e caches por versão enxergam a mudança.
+     * Nenhuma entidade é carregada: o evento de cada lote relê só as colunas que os caches em memória usam.
+     */
+    public List<Long> alterar(String filtro, List<Object> params, AlteracaoCarrosEmLote alteracao) {
+        EntityManager em = Carro.getEntityManager();
+        TypedQuery<Long> consulta = em.createQuery("select id from Carro where " + filtro + " order by id", Long.class);
+        for (int i = 0; i < params.size(); i++) {
+            consulta.setParameter(i + 1, params.get(i));
+        }
+        List<Long> ids = consulta.getResultList();
+
+        List<Object> valores = new ArrayList<>();
+        String atribuicoes = alteracao.atribuicoes(valores);
+        for (List<Long> lote : lotes(ids)) {
+            var update = em.createQuery("update versioned Carro set " + atribuicoes + " where id in ?" + (valores.size() + 1));
+            for (int i = 0; i < valores.size(); i++) {
+                update.setParameter(i + 1, valores.get(i));
+            }
+            update.setParameter(valores.size() + 1, lote).executeUpdate();
+            alteracoes.fire(CarrosAlteradosEmLote.gravados(lote));
+        }
+        return ids;
+    }
+
+    private static List<List<Long>> lotes(List<Long> ids) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += LOTE_IDS) {
+            lotes.add(ids.subList(i, Math.min(i + LOTE_IDS, ids.size())));
+        }
+        return lotes;
+    }
+}
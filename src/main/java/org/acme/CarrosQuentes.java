@@ -0,0 +1,191 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Modelo de leitura dos carros mais acessados: o JSON já serializado de cada CarroView (com a ETag), por id, num cache
+ * limitado por bytes com a política W-TinyLFU do Caffeine, que resiste a varreduras como a de GET /carros.
+ * Um acerto não passa pelo Hibernate nem pelo Jackson.
+ * As alterações commitadas (EntidadeAlterada) removem só as entradas afetadas: o próprio carro, os carros da marca
+ * ou do perfil alterado e os que têm o acessório alterado. Uma leitura que começou antes de uma alteração não grava
+ * o resultado, para não guardar uma versão velha; nem uma leitura com versão anterior à última escrita conhecida
+ * (InvalidacaoDistribuida), como a de uma réplica atrasada depois da escrita de outra instância.
+ */
+@ApplicationScoped
+public class CarrosQuentes {
+
+    public static final String METRICA = "carros.quentes";
+
+    private static final int LOTE_IDS = 1000;
+    // Estimativa do que cada entrada ocupa além do JSON (chave, record, ETag, arrays e nó do cache).
+    private static final int CUSTO_FIXO = 160;
+
+    @ConfigProperty(name = "carros.quentes.memoria-maxima", defaultValue = "32M")
+    MemorySize memoriaMaxima;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    InvalidacaoDistribuida invalidacao;
+
+    private Cache<Long, Entrada> cache;
+    private final AtomicLong geracao = new AtomicLong();
+
+    public record Entrada(byte[] json, EntityTag etag, Long marcaId, Long perfilId, long[] acessorioIds) {
+
+        int peso() {
+            return CUSTO_FIXO + json.length + etag.getValue().length() * 2 + acessorioIds.length * 8;
+        }
+
+        boolean temAcessorio(long id) {
+            return Arrays.stream(acessorioIds).anyMatch(a -> a == id);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(memoriaMaxima.asLongValue())
+                .weigher((Long id, Entrada entrada) -> entrada.peso())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, METRICA);
+        Gauge.builder(METRICA + ".bytes", this, CarrosQuentes::bytes)
+                .description("Memória estimada das entradas em cache")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(METRICA + ".taxa-acerto", this, q -> q.cache.stats().hitRate())
+                .description("Acertos / consultas desde a subida")
+                .register(registry);
+    }
+
+    public Optional<Entrada> buscar(long id) {
+        Entrada entrada = cache.getIfPresent(id);
+        if (entrada != null) {
+            return Optional.of(entrada);
+        }
+        long inicio = geracao.get();
+        return CarroView.buscar(id).map(view -> guardar(view, inicio));
+    }
+
+    /**
+     * Todos os carros, em ordem de id. Só os ids vêm do banco; os carros fora do cache são lidos em lotes e guardados.
+     */
+    public List<Entrada> todos() {
+        long inicio = geracao.get();
+        List<Long> ids = Carro.getEntityManager().createQuery("select id from Carro order by id", Long.class).getResultList();
+        Map<Long, Entrada> encontradas = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> faltando = ids.stream().filter(id -> !encontradas.containsKey(id)).toList();
+        for (int i = 0; i < faltando.size(); i += LOTE_IDS) {
+            List<Long> lote = faltando.subList(i, Math.min(i + LOTE_IDS, faltando.size()));
+            for (CarroView view : CarroView.listar(Carro.find("id in ?1", lote))) {
+                encontradas.put(view.id(), guardar(view, inicio));
+            }
+        }
+        List<Entrada> entradas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entrada entrada = encontradas.get(id);
+            if (entrada != null) {
+                entradas.add(entrada);
+            }
+        }
+        return entradas;
+    }
+
+    void onAlteracao(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        geracao.incrementAndGet();
+        Long id = alteracao.id();
+        if (alteracao.tipo() == Carro.class) {
+            cache.invalidate(id);
+        } else if (alteracao.tipo() == Marca.class) {
+            remover(e -> Objects.equals(e.marcaId(), id));
+        } else if (alteracao.tipo() == FichaMarca.class) {
+            remover(e -> Objects.equals(e.perfilId(), id));
+        } else if (alteracao.tipo() == Acessorio.class && id != null) {
+            remover(e -> e.temAcessorio(id));
+        }
+    }
+
+    void onAlteracaoEmLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        geracao.incrementAndGet();
+        cache.invalidateAll(lote.ids());
+    }
+
+    public long entradas() {
+        return cache.estimatedSize();
+    }
+
+    public long bytes() {
+        return cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    private void remover(Predicate<Entrada> afetada) {
+        cache.asMap().values().removeIf(afetada);
+    }
+
+    private Entrada guardar(CarroView view, long inicio) {
+        Entrada entrada = entrada(view);
+        if (geracao.get() == inicio && atual(view)) {
+            cache.put(view.id(), entrada);
+            // Uma alteração entre a verificação e o put ainda pode ter passado: nesse caso a entrada sai de novo.
+            if (geracao.get() != inicio) {
+                cache.invalidate(view.id());
+            }
+        }
+        return entrada;
+    }
+
+    private boolean atual(CarroView view) {
+        MarcaView marca = view.marca();
+        FichaMarcaView perfil = marca != null ? marca.perfil() : null;
+        return !invalidacao.desatualizada(Carro.class, view.id(), view.versao())
+                && (marca == null || !invalidacao.desatualizada(Marca.class, marca.id(), marca.versao()))
+                && (perfil == null || !invalidacao.desatualizada(FichaMarca.class, perfil.id(), perfil.versao()))
+                && view.acessorios().stream().noneMatch(a -> invalidacao.desatualizada(Acessorio.class, a.id(), a.versao()));
+    }
+
+    private Entrada entrada(CarroView view) {
+        try {
+            return new Entrada(objectMapper.writeValueAsBytes(view), ETags.de(view),
+                    view.marca() != null ? view.marca().id() : null,
+                    view.marca() != null && view.marca().perfil() != null ? view.marca().perfil().id() : null,
+                    view.acessorios().stream().mapToLong(AcessorioView::id).toArray());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme;
+
+import io.quarkus.vertx.http.HttpServerOptionsCustomizer;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Só comprime respostas a partir de um tamanho mínimo: abaixo disso o cabeçalho gzip e a CPU gasta não compensam.
+ */
+@ApplicationScoped
+public class CompressaoHttp implements HttpServerOptionsCustomizer {
+
+    @ConfigProperty(name = "http.compressao.tamanho-minimo", defaultValue = "1024")
+    int tamanhoMinimo;
+
+    @Override
+    public void customizeHttpServer(HttpServerOptions options) {
+        options.setCompressionContentSizeThreshold(tamanhoMinimo);
+    }
+
+    @Override
+    public void customizeHttpsServer(HttpServerOptions options) {
+        options.setCompressionContentSizeThreshold(tamanhoMinimo);
+    }
+}
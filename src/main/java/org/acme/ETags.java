@@ -0,0 +1,67 @@
+package org.acme;
+
+import jakarta.ws.rs.core.EntityTag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * ETags fortes derivadas das colunas @Version de tudo o que entra na representação JSON da entidade.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static EntityTag de(Carro carro) {
+        return de(CarroView.de(carro));
+    }
+
+    public static EntityTag de(CarroView carro) {
+        StringBuilder valor = new StringBuilder("carro:").append(carro.id()).append('.').append(carro.versao());
+        if (carro.marca() != null) {
+            valor.append('|').append(partes(carro.marca()));
+        }
+        carro.acessorios().stream()
+                .sorted(Comparator.comparing(AcessorioView::id))
+                .forEach(a -> valor.append("|a").append(a.id()).append('.').append(a.versao()));
+        return hash(valor.toString());
+    }
+
+    public static EntityTag de(Marca marca) {
+        return de(MarcaView.de(marca));
+    }
+
+    public static EntityTag de(MarcaView marca) {
+        return hash(partes(marca));
+    }
+
+    public static EntityTag de(Acessorio acessorio) {
+        return de(AcessorioView.de(acessorio));
+    }
+
+    public static EntityTag de(AcessorioView acessorio) {
+        return hash("acessorio:" + acessorio.id() + "." + acessorio.versao());
+    }
+
+    public static EntityTag de(FichaMarca ficha) {
+        return hash("ficha:" + ficha.id + "." + ficha.versao);
+    }
+
+    static EntityTag hash(String valor) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(valor.getBytes(StandardCharsets.UTF_8));
+            return new EntityTag(Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String partes(MarcaView marca) {
+        String valor = "marca:" + marca.id() + "." + marca.versao();
+        return marca.perfil() != null ? valor + "|ficha:" + marca.perfil().id() + "." + marca.perfil().versao() : valor;
+    }
+}
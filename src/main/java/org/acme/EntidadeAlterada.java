@@ -0,0 +1,29 @@
+package org.acme;
+
+/**
+ * Evento CDI disparado pelos endpoints de escrita. Os observadores usam TransactionPhase.AFTER_SUCCESS,
+ * então só reagem a alterações efetivamente commitadas. Em remoções, entidade é null.
+ * Alterações feitas por outra instância chegam pela InvalidacaoDistribuida com recebida = true.
+ */
+public record EntidadeAlterada(Class<?> tipo, Long id, Object entidade, boolean recebida) {
+
+    public static EntidadeAlterada gravada(Class<?> tipo, Long id, Object entidade) {
+        return new EntidadeAlterada(tipo, id, entidade, false);
+    }
+
+    public static EntidadeAlterada removida(Class<?> tipo, Long id) {
+        return new EntidadeAlterada(tipo, id, null, false);
+    }
+
+    /**
+     * Alteração de outra instância, com a entidade já recarregada do banco (null se ela não existe mais).
+     * Não é publicada de novo.
+     */
+    public static EntidadeAlterada recebida(Class<?> tipo, Long id, Object entidade) {
+        return new EntidadeAlterada(tipo, id, entidade, true);
+    }
+
+    public boolean remocao() {
+        return entidade == null;
+    }
+}
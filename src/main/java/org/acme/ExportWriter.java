@@ -0,0 +1,153 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exportação em streaming (NDJSON ou CSV) com memória constante: as linhas são lidas por um cursor com fetch size
+ * fixo, escritas direto no output stream da resposta e o contexto de persistência é limpo a cada lote.
+ */
+@ApplicationScoped
+public class ExportWriter {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    @ConfigProperty(name = "export.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @ConfigProperty(name = "export.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    @ConfigProperty(name = "export.transaction-timeout", defaultValue = "1h")
+    Duration transactionTimeout;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public <T> Response exportar(String formato, String nome, Supplier<PanacheQuery<T>> consulta, Consumer<List<T>> prepararLote,
+                                 List<String> cabecalho, Function<T, List<Object>> linhaCsv) {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        if (!csv && !"ndjson".equalsIgnoreCase(formato)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Formato de exportação inválido: " + formato + " (use ndjson ou csv)")
+                    .build();
+        }
+
+        StreamingOutput output = out -> QuarkusTransaction.requiringNew()
+                .timeout((int) transactionTimeout.toSeconds())
+                .run(() -> {
+                    try {
+                        if (csv) {
+                            escreverCsv(out, consulta, prepararLote, cabecalho, linhaCsv);
+                        } else {
+                            escreverNdjson(out, consulta, prepararLote);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+        return Response.ok(output, csv ? CSV + "; charset=UTF-8" : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nome + (csv ? ".csv" : ".ndjson") + "\"")
+                .build();
+    }
+
+    private <T> void escreverNdjson(OutputStream out, Supplier<PanacheQuery<T>> consulta, Consumer<List<T>> prepararLote) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(generator)) {
+            percorrer(consulta, prepararLote, lote -> {
+                try {
+                    writer.writeAll(lote);
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        out.write('\n');
+        out.flush();
+    }
+
+    private <T> void escreverCsv(OutputStream out, Supplier<PanacheQuery<T>> consulta, Consumer<List<T>> prepararLote,
+                                 List<String> cabecalho, Function<T, List<Object>> linhaCsv) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", cabecalho));
+        writer.write("\r\n");
+        percorrer(consulta, prepararLote, lote -> {
+            try {
+                for (T item : lote) {
+                    writer.write(linhaCsv.apply(item).stream().map(ExportWriter::celulaCsv).collect(Collectors.joining(",")));
+                    writer.write("\r\n");
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private <T> void percorrer(Supplier<PanacheQuery<T>> consulta, Consumer<List<T>> prepararLote, Consumer<List<T>> escreverLote) {
+        EntityManager em = Panache.getEntityManager();
+        PanacheQuery<T> query = consulta.get()
+                .withHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .withHint(HibernateHints.HINT_READ_ONLY, true);
+        try (Stream<T> stream = query.stream()) {
+            Iterator<T> it = stream.iterator();
+            List<T> lote = new ArrayList<>(chunkSize);
+            while (it.hasNext()) {
+                lote.add(it.next());
+                if (lote.size() == chunkSize || !it.hasNext()) {
+                    prepararLote.accept(lote);
+                    escreverLote.accept(lote);
+                    lote.clear();
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    static String celulaCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor instanceof Collection<?> c
+                ? c.stream().map(String::valueOf).collect(Collectors.joining(";"))
+                : String.valueOf(valor);
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+}
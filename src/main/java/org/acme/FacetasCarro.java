@@ -0,0 +1,253 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Agregado em memória dos atributos de faceta de cada carro (marca, ano, avaliação, cilindradas e acessórios).
+ * As contagens sem filtro são mantidas incrementalmente pelos eventos EntidadeAlterada e CarrosAlteradosEmLote; com filtro, as linhas
+ * compactas são percorridas em memória, sem GROUP BY no banco.
+ * Cada faceta ignora o próprio filtro (ex.: as contagens por marca consideram todos os filtros menos marcaId),
+ * para que o front possa mostrar as outras opções da mesma faceta.
+ */
+@ApplicationScoped
+public class FacetasCarro {
+
+    private static final int ANO = 1;
+    private static final int MARCA = 1 << 1;
+    private static final int ACESSORIOS = 1 << 2;
+    private static final int AVALIACAO = 1 << 3;
+    private static final int TODAS = ANO | MARCA | ACESSORIOS | AVALIACAO;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Linha> linhas = new HashMap<>();
+    private final Contagens semFiltro = new Contagens();
+
+    private record Linha(int ano, double avaliacao, int cilindradas, Long marcaId, long[] acessorios) {
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        reconstruir();
+    }
+
+    public void reconstruir() {
+        Map<Long, Linha> carregadas = new HashMap<>();
+        QuarkusTransaction.requiringNew().run(() -> {
+            EntityManager em = Carro.getEntityManager();
+            Map<Long, long[]> acessorios = new HashMap<>();
+            try (Stream<Object[]> pares = em.createQuery("select c.id, a.id from Carro c join c.acessorios a", Object[].class).getResultStream()) {
+                pares.forEach(p -> acessorios.merge((Long) p[0], new long[]{(Long) p[1]}, FacetasCarro::concatenar));
+            }
+            try (Stream<Object[]> carros = em.createQuery(
+                    "select c.id, c.anoFabricacao, c.avaliacao, c.cilindradas, m.id from Carro c left join c.marca m", Object[].class).getResultStream()) {
+                carros.forEach(c -> carregadas.put((Long) c[0], new Linha((Integer) c[1], (Double) c[2], (Integer) c[3], (Long) c[4],
+                        acessorios.getOrDefault((Long) c[0], new long[0]))));
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            linhas.clear();
+            semFiltro.limpar();
+            carregadas.forEach(this::gravarSemLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onAlteracao(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        if (alteracao.tipo() != Carro.class || alteracao.id() == null) {
+            return;
+        }
+        Linha nova = alteracao.entidade() instanceof Carro c ? linha(c) : null;
+        lock.writeLock().lock();
+        try {
+            Linha anterior = linhas.remove(alteracao.id());
+            if (anterior != null) {
+                semFiltro.somar(anterior, -1, TODAS);
+            }
+            if (nova != null) {
+                gravarSemLock(alteracao.id(), nova);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void onAlteracaoEmLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : lote.ids()) {
+                Linha anterior = linhas.remove(id);
+                if (anterior != null) {
+                    semFiltro.somar(anterior, -1, TODAS);
+                }
+            }
+            for (CarrosAlteradosEmLote.Linha c : lote.carros()) {
+                gravarSemLock(c.id(), new Linha(c.anoFabricacao(), c.avaliacao(), c.cilindradas(), c.marcaId(), c.acessorios()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void gravarSemLock(Long id, Linha linha) {
+        linhas.put(id, linha);
+        semFiltro.somar(linha, 1, TODAS);
+    }
+
+    /**
+     * Facetas dos carros que atendem aos filtros. numero é o q numérico (ano ou cilindradas) e idsTexto,
+     * quando não nulo, os ids que casaram com o q textual.
+     */
+    public FacetasCarroResponse calcular(Integer numero, Set<Long> idsTexto, FiltroCarro filtros) {
+        lock.readLock().lock();
+        try {
+            if (numero == null && idsTexto == null && filtros.vazio()) {
+                return semFiltro.resposta();
+            }
+            Contagens contagens = new Contagens();
+            long[] exigidos = filtros.acessorios.stream().filter(id -> id != null).mapToLong(Long::longValue).distinct().sorted().toArray();
+            linhas.forEach((id, l) -> {
+                if (idsTexto != null && !idsTexto.contains(id)) {
+                    return;
+                }
+                if (numero != null && l.ano() != numero && l.cilindradas() != numero) {
+                    return;
+                }
+                if ((filtros.cilindradasMin != null && l.cilindradas() < filtros.cilindradasMin)
+                        || (filtros.cilindradasMax != null && l.cilindradas() > filtros.cilindradasMax)) {
+                    return;
+                }
+                int falhas = 0;
+                if ((filtros.anoMin != null && l.ano() < filtros.anoMin) || (filtros.anoMax != null && l.ano() > filtros.anoMax)) {
+                    falhas |= ANO;
+                }
+                if (filtros.marcaId != null && !filtros.marcaId.equals(l.marcaId())) {
+                    falhas |= MARCA;
+                }
+                if (exigidos.length > 0 && !contemTodos(l.acessorios(), exigidos)) {
+                    falhas |= ACESSORIOS;
+                }
+                if (filtros.avaliacaoMin != null && l.avaliacao() < filtros.avaliacaoMin) {
+                    falhas |= AVALIACAO;
+                }
+                if (falhas == 0) {
+                    contagens.somar(l, 1, TODAS);
+                } else if (Integer.bitCount(falhas) == 1) {
+                    // Falhou só no filtro de uma faceta: conta apenas nessa faceta.
+                    contagens.somar(l, 1, falhas);
+                }
+            });
+            return contagens.resposta();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Linha linha(Carro carro) {
+        long[] acessorios = carro.acessorios.stream().mapToLong(FacetasCarro::id).distinct().sorted().toArray();
+        Long marcaId = carro.marca != null ? id(carro.marca) : null;
+        return new Linha(carro.anoFabricacao, carro.avaliacao, carro.cilindradas, marcaId, acessorios);
+    }
+
+    /**
+     * Id de uma referência sem inicializá-la: o evento é observado depois do commit, com a sessão já fechada.
+     */
+    private static Long id(Object entidade) {
+        if (entidade instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return entidade instanceof Marca m ? m.id : ((Acessorio) entidade).id;
+    }
+
+    private static boolean contemTodos(long[] ordenados, long[] exigidos) {
+        for (long id : exigidos) {
+            if (Arrays.binarySearch(ordenados, id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] concatenar(long[] a, long[] b) {
+        long[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        Arrays.sort(c);
+        return c;
+    }
+
+    static String decada(int ano) {
+        int inicio = Math.floorDiv(ano, 10) * 10;
+        return inicio + "-" + (inicio + 9);
+    }
+
+    static String faixaAvaliacao(double avaliacao) {
+        int inicio = Math.min((int) (avaliacao / 2), 4) * 2;
+        return inicio + "-" + (inicio + 2);
+    }
+
+    private static final class Contagens {
+        private long carros;
+        private final Map<Long, Long> marcas = new TreeMap<>();
+        private final Map<Integer, Long> decadas = new TreeMap<>();
+        private final Map<Long, Long> acessorios = new TreeMap<>();
+        private final Map<Integer, Long> faixas = new TreeMap<>();
+
+        void somar(Linha l, int delta, int facetas) {
+            if (facetas == TODAS) {
+                carros += delta;
+            }
+            if ((facetas & MARCA) != 0 && l.marcaId() != null) {
+                somar(marcas, l.marcaId(), delta);
+            }
+            if ((facetas & ANO) != 0) {
+                somar(decadas, Math.floorDiv(l.ano(), 10) * 10, delta);
+            }
+            if ((facetas & ACESSORIOS) != 0) {
+                for (long id : l.acessorios()) {
+                    somar(acessorios, id, delta);
+                }
+            }
+            if ((facetas & AVALIACAO) != 0) {
+                somar(faixas, Math.min((int) (l.avaliacao() / 2), 4), delta);
+            }
+        }
+
+        private static <K> void somar(Map<K, Long> mapa, K chave, int delta) {
+            mapa.merge(chave, (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        void limpar() {
+            carros = 0;
+            marcas.clear();
+            decadas.clear();
+            acessorios.clear();
+            faixas.clear();
+        }
+
+        FacetasCarroResponse resposta() {
+            var response = new FacetasCarroResponse();
+            response.TotalCarros = carros;
+            marcas.forEach((id, n) -> response.Marcas.add(new FacetasCarroResponse.Faceta(String.valueOf(id), n)));
+            decadas.forEach((d, n) -> response.AnosFabricacao.add(new FacetasCarroResponse.Faceta(decada(d), n)));
+            acessorios.forEach((id, n) -> response.Acessorios.add(new FacetasCarroResponse.Faceta(String.valueOf(id), n)));
+            faixas.forEach((f, n) -> response.Avaliacoes.add(new FacetasCarroResponse.Faceta(faixaAvaliacao(f * 2), n)));
+            return response;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FacetasCarroResponse {
+    public long TotalCarros;
+    public List<Faceta> Marcas = new ArrayList<>();
+    public List<Faceta> AnosFabricacao = new ArrayList<>();
+    public List<Faceta> Acessorios = new ArrayList<>();
+    public List<Faceta> Avaliacoes = new ArrayList<>();
+
+    public static class Faceta {
+        public String Valor;
+        public long Quantidade;
+
+        public Faceta() {}
+
+        public Faceta(String valor, long quantidade) {
+            this.Valor = valor;
+            this.Quantidade = quantidade;
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package org.acme;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
+@Cacheable
 public class FichaMarca extends PanacheEntityBase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(readOnly = true)
     public Long id;
 
-    @OneToOne(mappedBy = "perfil")
+    @Version
+    @Schema(readOnly = true)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long versao;
+
+    @OneToOne(mappedBy = "perfil", fetch = FetchType.LAZY)
     @JsonIgnore
     public Marca marca;
 
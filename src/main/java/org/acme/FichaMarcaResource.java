@@ -1,32 +1,60 @@
 package org.acme;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.Optional;
-import java.util.List;
 
 @Path("/fichas-marca")
+@RunOnVirtualThread
 public class FichaMarcaResource {
 
+    @Inject
+    VersoesColecao versoesColecao;
+
+    @Inject
+    Event<EntidadeAlterada> alteracoes;
+
     @GET
-    public List<FichaMarca> getAll(){
-        return FichaMarca.listAll();
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
+    public Response getAll(@Context Request request, @Context UriInfo uriInfo){
+        EntityTag etag = versoesColecao.etag(uriInfo, FichaMarca.class);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        return Response.ok(FichaMarca.listAll()).tag(etag).build();
     }
 
     @GET
     @Path("/{id}")
-    public Response getById(@PathParam("id") long id){
-        return FichaMarca.findByIdOptional(id)
-                .map(ficha -> Response.ok(ficha).build())
-                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    public Response getById(@PathParam("id") long id, @Context Request request){
+        Optional<FichaMarca> fichaOpt = FichaMarca.findByIdOptional(id);
+        if(fichaOpt.isEmpty()){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        EntityTag etag = ETags.de(fichaOpt.get());
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+        return Response.ok(fichaOpt.get()).tag(etag).build();
     }
 
     @POST
     @Transactional
     public Response insert(@Valid FichaMarca ficha){
         ficha.persist();
+        alteracoes.fire(EntidadeAlterada.gravada(FichaMarca.class, ficha.id, ficha));
         return Response.status(Response.Status.CREATED).entity(ficha).build();
     }
 
@@ -35,21 +63,29 @@ public class FichaMarcaResource {
     @Transactional
     public Response delete(@PathParam("id") long id){
         boolean deleted = FichaMarca.deleteById(id);
+        if(deleted){
+            alteracoes.fire(EntidadeAlterada.removida(FichaMarca.class, id));
+        }
         return deleted ? Response.noContent().build() : Response.status(Response.Status.NOT_FOUND).build();
     }
 
     @PUT
     @Path("/{id}")
     @Transactional
-    public Response update(@PathParam("id") long id, @Valid FichaMarca newFicha){
+    public Response update(@PathParam("id") long id, @Valid FichaMarca newFicha, @Context Request request){
         Optional<FichaMarca> fichaOpt = FichaMarca.findByIdOptional(id);
         if(fichaOpt.isPresent()){
             FichaMarca ficha = fichaOpt.get();
+            Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(ficha));
+            if(precondicao != null){
+                return precondicao.build();
+            }
             ficha.historia = newFicha.historia;
             ficha.fundadores = newFicha.fundadores;
             ficha.premiosConquistados = newFicha.premiosConquistados;
-            ficha.persist();
-            return Response.ok(ficha).build();
+            ficha.persistAndFlush();
+            alteracoes.fire(EntidadeAlterada.gravada(FichaMarca.class, ficha.id, ficha));
+            return Response.ok(ficha).tag(ETags.de(ficha)).build();
         }
         return Response.status(Response.Status.NOT_FOUND).build();
     }
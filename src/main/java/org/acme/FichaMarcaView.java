@@ -0,0 +1,31 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Representação de leitura do perfil de uma marca (mesmo JSON da entidade).
+ */
+@JsonFilter(CamposEsparsos.FILTRO)
+public record FichaMarcaView(Long id, long versao, String historia, String fundadores, String premiosConquistados) {
+
+    public static FichaMarcaView de(FichaMarca ficha) {
+        return ficha == null ? null : new FichaMarcaView(ficha.id, ficha.versao, ficha.historia, ficha.fundadores, ficha.premiosConquistados);
+    }
+
+    static Map<Long, FichaMarcaView> porIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return FichaMarca.find("id in ?1", ids)
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .project(FichaMarcaView.class)
+                .list().stream()
+                .collect(Collectors.toMap(FichaMarcaView::id, Function.identity()));
+    }
+}
@@ -0,0 +1,113 @@
+package org.acme;
+
+import jakarta.ws.rs.QueryParam;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Filtros tipados da pesquisa de carros. Cada filtro vira um predicado simples (coluna = / >= / <= parâmetro)
+ * combinado com "and", para que os índices de Carro e de carro_acessorio possam ser usados.
+ */
+public class FiltroCarro {
+
+    @Parameter(description = "Ano de fabricação mínimo (inclusive)")
+    @QueryParam("anoMin")
+    public Integer anoMin;
+
+    @Parameter(description = "Ano de fabricação máximo (inclusive)")
+    @QueryParam("anoMax")
+    public Integer anoMax;
+
+    @Parameter(description = "Avaliação mínima (inclusive)")
+    @QueryParam("avaliacaoMin")
+    public Double avaliacaoMin;
+
+    @Parameter(description = "Cilindradas mínimas (inclusive)")
+    @QueryParam("cilindradasMin")
+    public Integer cilindradasMin;
+
+    @Parameter(description = "Cilindradas máximas (inclusive)")
+    @QueryParam("cilindradasMax")
+    public Integer cilindradasMax;
+
+    @Parameter(description = "Id da marca")
+    @QueryParam("marcaId")
+    public Long marcaId;
+
+    @Parameter(description = "Ids de acessórios que o carro precisa ter (todos); repita o parâmetro para cada id")
+    @QueryParam("acessorio")
+    public List<Long> acessorios = new ArrayList<>();
+
+    public boolean vazio() {
+        return anoMin == null && anoMax == null && avaliacaoMin == null && cilindradasMin == null
+                && cilindradasMax == null && marcaId == null && acessorios.isEmpty();
+    }
+
+    /**
+     * Mensagem de erro para combinações inválidas, ou null.
+     */
+    public String validar() {
+        List<String> erros = new ArrayList<>();
+        if (anoMin != null && anoMax != null && anoMin > anoMax) {
+            erros.add("anoMin não pode ser maior que anoMax");
+        }
+        if (cilindradasMin != null && cilindradasMax != null && cilindradasMin > cilindradasMax) {
+            erros.add("cilindradasMin não pode ser maior que cilindradasMax");
+        }
+        if (avaliacaoMin != null && (avaliacaoMin < 0 || avaliacaoMin > 10)) {
+            erros.add("avaliacaoMin deve estar entre 0 e 10");
+        }
+        return erros.isEmpty() ? null : String.join("; ", erros);
+    }
+
+    /**
+     * Monta os predicados usando parâmetros posicionais a partir de params.size() + 1; "" se não há filtros.
+     */
+    public String predicado(List<Object> params) {
+        List<String> partes = new ArrayList<>();
+        comparar(partes, params, "anoFabricacao >=", anoMin);
+        comparar(partes, params, "anoFabricacao <=", anoMax);
+        comparar(partes, params, "avaliacao >=", avaliacaoMin);
+        comparar(partes, params, "cilindradas >=", cilindradasMin);
+        comparar(partes, params, "cilindradas <=", cilindradasMax);
+        comparar(partes, params, "marca.id =", marcaId);
+
+        TreeSet<Long> ids = idsAcessorios();
+        if (!ids.isEmpty()) {
+            // Percorre o índice (acessorio_id, carro_id) de carro_acessorio e fica com os carros que têm todos.
+            params.add(ids);
+            String idsParam = "?" + params.size();
+            params.add((long) ids.size());
+            partes.add("id in (select c2.id from Carro c2 join c2.acessorios a where a.id in " + idsParam
+                    + " group by c2.id having count(a.id) = ?" + params.size() + ")");
+        }
+        return String.join(" and ", partes);
+    }
+
+    /**
+     * Representação estável dos filtros, usada na chave do cache de totais.
+     */
+    public String chave() {
+        return anoMin + "," + anoMax + "," + avaliacaoMin + "," + cilindradasMin + "," + cilindradasMax + "," + marcaId + "," + idsAcessorios();
+    }
+
+    private TreeSet<Long> idsAcessorios() {
+        TreeSet<Long> ids = new TreeSet<>();
+        for (Long id : acessorios) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static void comparar(List<String> partes, List<Object> params, String expressao, Object valor) {
+        if (valor != null) {
+            params.add(valor);
+            partes.add(expressao + " ?" + params.size());
+        }
+    }
+}
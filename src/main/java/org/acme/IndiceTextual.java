@@ -0,0 +1,284 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória para a pesquisa textual de carros (modelo, descricao), marcas (nomeDaMarca, paisDeOrigem)
+ * e acessórios (nome, descricao). Os termos são normalizados sem acento e em minúsculas; cada palavra da consulta
+ * precisa casar com um termo exato ou, com peso menor, com o prefixo de um termo.
+ * É montado na inicialização e mantido em dia pelos eventos EntidadeAlterada e CarrosAlteradosEmLote commitados.
+ */
+@ApplicationScoped
+public class IndiceTextual {
+
+    public static final String RELEVANCIA = "relevancia";
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double PESO_PREFIXO = 0.5;
+    private static final int TAMANHO_MINIMO_PREFIXO = 2;
+
+    private static final SearchCursor.SortKey<Resultado> CHAVE_RELEVANCIA =
+            new SearchCursor.SortKey<>(Double.class, false, Resultado::score);
+
+    @ConfigProperty(name = "busca.indice.max-ids", defaultValue = "5000")
+    int maxIds;
+
+    private final Map<Class<?>, Indice> indices = Map.of(
+            Carro.class, new Indice(),
+            Marca.class, new Indice(),
+            Acessorio.class, new Indice());
+
+    public record Resultado(long id, double score) {
+    }
+
+    public record Pagina(List<Long> ids, boolean temMais, String proximoCursor) {
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        reconstruir();
+    }
+
+    /**
+     * Relê as três tabelas e substitui o conteúdo do índice.
+     */
+    public void reconstruir() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            EntityManager em = Carro.getEntityManager();
+            carregar(em, Carro.class, "select c.id, c.modelo, c.descricao from Carro c");
+            carregar(em, Marca.class, "select m.id, m.nomeDaMarca, m.paisDeOrigem from Marca m");
+            carregar(em, Acessorio.class, "select a.id, a.nome, a.descricao from Acessorio a");
+        });
+    }
+
+    private void carregar(EntityManager em, Class<?> tipo, String consulta) {
+        Indice indice = indices.get(tipo);
+        indice.limpar();
+        try (Stream<Object[]> linhas = em.createQuery(consulta, Object[].class).getResultStream()) {
+            linhas.forEach(l -> indice.gravar((Long) l[0], (String) l[1], (String) l[2]));
+        }
+        em.clear();
+    }
+
+    void onAlteracao(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        Indice indice = indices.get(alteracao.tipo());
+        if (indice == null || alteracao.id() == null) {
+            return;
+        }
+        if (alteracao.remocao()) {
+            indice.remover(alteracao.id());
+        } else if (alteracao.entidade() instanceof Carro c) {
+            indice.gravar(c.id, c.modelo, c.descricao);
+        } else if (alteracao.entidade() instanceof Marca m) {
+            indice.gravar(m.id, m.nomeDaMarca, m.paisDeOrigem);
+        } else if (alteracao.entidade() instanceof Acessorio a) {
+            indice.gravar(a.id, a.nome, a.descricao);
+        }
+    }
+
+    void onAlteracaoEmLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        Indice indice = indices.get(Carro.class);
+        lote.ids().forEach(indice::remover);
+        lote.carros().forEach(c -> indice.gravar(c.id(), c.modelo(), c.descricao()));
+    }
+
+    /**
+     * Ids que casam com todas as palavras de q, do mais relevante para o menos relevante (empate pelo id).
+     */
+    public List<Resultado> buscar(Class<?> tipo, String q) {
+        return indices.get(tipo).buscar(tokens(q));
+    }
+
+    /**
+     * Se a quantidade de resultados é pequena o bastante para virar um "id in (...)" no banco. Acima disso a
+     * ordenação por campo usa PaginacaoIndice.porCampo.
+     */
+    public boolean cabeNaConsulta(List<Resultado> resultados) {
+        return resultados.size() <= maxIds;
+    }
+
+    public int maxIds() {
+        return maxIds;
+    }
+
+    public static List<Long> ids(List<Resultado> resultados) {
+        return resultados.stream().map(Resultado::id).toList();
+    }
+
+    /**
+     * Página da ordenação por relevância, feita sobre o ranking em memória: por offset (cursor null)
+     * ou a partir do cursor (score, id) da página anterior.
+     */
+    public static Pagina paginar(List<Resultado> ranking, int page, int size, String cursor) {
+        int inicio;
+        if (cursor == null) {
+            inicio = (int) Math.min((long) page * size, ranking.size());
+        } else if (cursor.isBlank()) {
+            inicio = 0;
+        } else {
+            SearchCursor after = SearchCursor.decode(cursor, RELEVANCIA, true, CHAVE_RELEVANCIA);
+            double score = (Double) after.value();
+            inicio = 0;
+            while (inicio < ranking.size() && !depoisDe(ranking.get(inicio), score, after.id())) {
+                inicio++;
+            }
+        }
+        int fim = Math.min(inicio + size, ranking.size());
+        List<Resultado> pagina = ranking.subList(inicio, fim);
+        boolean temMais = fim < ranking.size();
+        String proximoCursor = temMais && !pagina.isEmpty()
+                ? SearchCursor.after(RELEVANCIA, true, CHAVE_RELEVANCIA, pagina.get(pagina.size() - 1), pagina.get(pagina.size() - 1).id()).encode()
+                : null;
+        return new Pagina(ids(pagina), temMais, proximoCursor);
+    }
+
+    private static boolean depoisDe(Resultado r, double score, long id) {
+        return r.score() < score || (r.score() == score && r.id() > id);
+    }
+
+    /**
+     * Reordena as entidades carregadas com "id in (...)" na ordem dos ids.
+     */
+    public static <T> List<T> ordenar(List<T> entidades, List<Long> ids, Function<T, Long> id) {
+        Map<Long, Integer> posicao = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posicao.put(ids.get(i), i);
+        }
+        List<T> ordenadas = new ArrayList<>(entidades);
+        ordenadas.sort(Comparator.comparing(e -> posicao.getOrDefault(id.apply(e), Integer.MAX_VALUE)));
+        return ordenadas;
+    }
+
+    static List<String> tokens(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Stream.of(SEPARADORES.split(normalizado)).filter(t -> !t.isEmpty()).toList();
+    }
+
+    /**
+     * Índice de um tipo de entidade. O campo principal (modelo, nome) pesa o dobro da descrição.
+     */
+    private static final class Indice {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+        private final Map<Long, Map<String, Double>> documentos = new HashMap<>();
+
+        void gravar(Long id, String principal, String secundario) {
+            Map<String, Double> termos = new HashMap<>();
+            tokens(principal).forEach(t -> termos.merge(t, 2.0, Double::sum));
+            tokens(secundario).forEach(t -> termos.merge(t, 1.0, Double::sum));
+
+            lock.writeLock().lock();
+            try {
+                removerSemLock(id);
+                documentos.put(id, termos);
+                termos.forEach((termo, peso) -> postings.computeIfAbsent(termo, t -> new HashMap<>()).put(id, peso));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remover(Long id) {
+            lock.writeLock().lock();
+            try {
+                removerSemLock(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void limpar() {
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                documentos.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removerSemLock(Long id) {
+            Map<String, Double> anteriores = documentos.remove(id);
+            if (anteriores == null) {
+                return;
+            }
+            for (String termo : anteriores.keySet()) {
+                Map<Long, Double> docs = postings.get(termo);
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(termo);
+                }
+            }
+        }
+
+        List<Resultado> buscar(List<String> palavras) {
+            if (palavras.isEmpty()) {
+                return List.of();
+            }
+            lock.readLock().lock();
+            try {
+                Map<Long, Double> acumulado = null;
+                for (String palavra : palavras) {
+                    Map<Long, Double> daPalavra = pontuar(palavra);
+                    if (acumulado == null) {
+                        acumulado = daPalavra;
+                    } else {
+                        acumulado.keySet().retainAll(daPalavra.keySet());
+                        acumulado.replaceAll((id, score) -> score + daPalavra.get(id));
+                    }
+                    if (acumulado.isEmpty()) {
+                        return List.of();
+                    }
+                }
+                return acumulado.entrySet().stream()
+                        .map(e -> new Resultado(e.getKey(), e.getValue()))
+                        .sorted(Comparator.comparingDouble(Resultado::score).reversed().thenComparingLong(Resultado::id))
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Melhor pontuação de cada documento para uma palavra: peso no documento x idf do termo,
+         * com desconto quando o casamento é só por prefixo.
+         */
+        private Map<Long, Double> pontuar(String palavra) {
+            Map<Long, Double> scores = new HashMap<>();
+            Map<String, Map<Long, Double>> candidatos = palavra.length() >= TAMANHO_MINIMO_PREFIXO
+                    ? postings.subMap(palavra, true, palavra + Character.MAX_VALUE, true)
+                    : postings.containsKey(palavra) ? Map.of(palavra, postings.get(palavra)) : Map.of();
+            candidatos.forEach((termo, docs) -> {
+                double idf = Math.log(1.0 + (double) documentos.size() / docs.size());
+                double fator = termo.equals(palavra) ? 1.0 : PESO_PREFIXO;
+                docs.forEach((id, peso) -> scores.merge(id, peso * idf * fator, Math::max));
+            });
+            return scores;
+        }
+    }
+}
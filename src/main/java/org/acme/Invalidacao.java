@@ -0,0 +1,37 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Linha do transporte padrão de invalidação (TransporteTabela): cada escrita grava uma linha na própria transação e
+ * as outras instâncias leem as linhas recentes. As antigas são apagadas depois de invalidacao.retencao.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_invalidacao_criado", columnList = "criadoEm, id"))
+public class Invalidacao extends PanacheEntityBase {
+    // Sequence (e não identity) para que as linhas de uma importação em lote sejam inseridas com batching JDBC.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invalidacao_seq")
+    @SequenceGenerator(name = "invalidacao_seq", sequenceName = "invalidacao_seq", allocationSize = 50)
+    public Long id;
+
+    @Column(nullable = false, length = 40)
+    public String tipo;
+
+    public long entidadeId;
+
+    public long versao;
+
+    @Column(nullable = false, length = 40)
+    public String origem;
+
+    @Column(nullable = false)
+    public Instant criadoEm;
+
+    // Ids dos carros de um lote de CarrosEmLote, separados por vírgula (null numa escrita individual).
+    @Column(length = 20000)
+    public String ids;
+}
@@ -0,0 +1,263 @@
+package org.acme;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.Identifier;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém coerentes os caches de várias instâncias da aplicação sobre o mesmo banco (segundo nível do Hibernate,
+ * CarrosQuentes, índice textual, facetas e contagens). Cada escrita local publica tipo, id e versão no
+ * TransporteInvalidacao escolhido em invalidacao.transporte, na mesma transação; a cada invalidacao.intervalo as
+ * outras instâncias leem as mensagens, tiram a entidade dos caches, recarregam do banco e disparam
+ * EntidadeAlterada.recebida para os observadores de sempre.
+ * A versão conhecida de cada entidade descarta mensagens repetidas ou fora de ordem e impede que uma leitura
+ * anterior à invalidação volte para o CarrosQuentes.
+ * Cada lote de CarrosEmLote vira uma só mensagem com os ids; quem recebe relê as colunas dos carros do lote e dispara
+ * CarrosAlteradosEmLote.recebidos. Lotes repetidos são descartados pela origem e o número do lote.
+ */
+@ApplicationScoped
+public class InvalidacaoDistribuida {
+
+    public static final String METRICA = "invalidacao.mensagens";
+
+    static final Map<String, Class<?>> TIPOS = Map.of(
+            "Carro", Carro.class,
+            "Marca", Marca.class,
+            "Acessorio", Acessorio.class,
+            "FichaMarca", FichaMarca.class);
+
+    private static final long REMOVIDA = Long.MAX_VALUE;
+
+    @ConfigProperty(name = "invalidacao.transporte", defaultValue = "tabela")
+    String nomeTransporte;
+
+    @ConfigProperty(name = "invalidacao.retencao", defaultValue = "10m")
+    Duration retencao;
+
+    @Inject
+    @Any
+    Instance<TransporteInvalidacao> transportes;
+
+    @Inject
+    Event<EntidadeAlterada> alteracoes;
+
+    @Inject
+    Event<CarrosAlteradosEmLote> lotesAlterados;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final String instancia = UUID.randomUUID().toString();
+    private final Map<Chave, Versao> versoes = new ConcurrentHashMap<>();
+    private final AtomicLong lotes = new AtomicLong();
+    private final Map<String, Long> lotesAplicados = new ConcurrentHashMap<>();
+    private TransporteInvalidacao transporte;
+
+    private record Chave(Class<?> tipo, Long id) {
+    }
+
+    private record Versao(long numero, long conhecidaEm) {
+    }
+
+    @PostConstruct
+    void init() {
+        transporte = "nenhum".equals(nomeTransporte)
+                ? null
+                : transportes.select(Identifier.Literal.of(nomeTransporte)).get();
+    }
+
+    /**
+     * Publica a escrita local dentro da transação dela; as alterações recebidas de outra instância não voltam ao transporte.
+     */
+    void publicar(@Observes EntidadeAlterada alteracao) {
+        if (transporte == null || alteracao.recebida() || alteracao.id() == null || !TIPOS.containsValue(alteracao.tipo())) {
+            return;
+        }
+        atualizarVersao(alteracao.entidade());
+        enviar(new TransporteInvalidacao.Mensagem(alteracao.tipo().getSimpleName(), alteracao.id(),
+                versao(alteracao), instancia));
+    }
+
+    void publicarLote(@Observes CarrosAlteradosEmLote lote) {
+        if (transporte == null || lote.recebido() || lote.ids().isEmpty()) {
+            return;
+        }
+        enviar(new TransporteInvalidacao.Mensagem(Carro.class.getSimpleName(), lotes.incrementAndGet(), 0, instancia, lote.ids()));
+    }
+
+    void registrar(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        if (!alteracao.recebida() && alteracao.id() != null) {
+            conhecer(alteracao.tipo(), alteracao.id(), versao(alteracao));
+        }
+    }
+
+    void registrarLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        if (!lote.recebido()) {
+            conhecer(lote);
+        }
+    }
+
+    /**
+     * Aplica as mensagens das outras instâncias. Também chamado diretamente nos testes.
+     */
+    @Scheduled(every = "${invalidacao.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void sincronizar() {
+        if (transporte == null) {
+            return;
+        }
+        for (TransporteInvalidacao.Mensagem mensagem : transporte.receber(instancia)) {
+            Class<?> tipo = TIPOS.get(mensagem.tipo());
+            if (mensagem.lote()) {
+                if (lotesAplicados.putIfAbsent(mensagem.origem() + ":" + mensagem.id(), System.currentTimeMillis()) == null) {
+                    aplicarLote(mensagem.ids());
+                    registry.counter(METRICA, "direcao", "aplicada").increment();
+                } else {
+                    registry.counter(METRICA, "direcao", "ignorada").increment();
+                }
+            } else if (tipo != null && conhecer(tipo, mensagem.id(), mensagem.versao())) {
+                aplicar(tipo, mensagem.id());
+                registry.counter(METRICA, "direcao", "aplicada").increment();
+            } else {
+                registry.counter(METRICA, "direcao", "ignorada").increment();
+            }
+        }
+        // Depois da retenção o transporte não repete mais a mensagem, então a versão não precisa ficar guardada.
+        long limite = System.currentTimeMillis() - retencao.toMillis();
+        versoes.values().removeIf(v -> v.conhecidaEm() < limite);
+        lotesAplicados.values().removeIf(aplicadoEm -> aplicadoEm < limite);
+    }
+
+    /**
+     * Se a versão lida do banco é mais velha que a última escrita conhecida da entidade (local ou de outra instância).
+     */
+    public boolean desatualizada(Class<?> tipo, Long id, long versao) {
+        Versao conhecida = versoes.get(new Chave(tipo, id));
+        return conhecida != null && versao < conhecida.numero();
+    }
+
+    private void aplicar(Class<?> tipo, Long id) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            org.hibernate.Cache cache = sessionFactory.getCache();
+            cache.evictEntityData(tipo, id);
+            if (tipo == Carro.class) {
+                cache.evictCollectionData(Carro.PAPEL_ACESSORIOS, id);
+            } else if (tipo == Acessorio.class) {
+                // Uma remoção tira o acessório de carros que esta instância não sabe quais são.
+                cache.evictCollectionData(Carro.PAPEL_ACESSORIOS);
+            }
+            cache.evictQueryRegions();
+            alteracoes.fire(EntidadeAlterada.recebida(tipo, id, carregar(tipo, id)));
+        });
+    }
+
+    private void aplicarLote(List<Long> ids) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            org.hibernate.Cache cache = sessionFactory.getCache();
+            for (Long id : ids) {
+                cache.evictEntityData(Carro.class, id);
+                cache.evictCollectionData(Carro.PAPEL_ACESSORIOS, id);
+            }
+            cache.evictQueryRegions();
+            CarrosAlteradosEmLote lote = CarrosAlteradosEmLote.recebidos(ids);
+            conhecer(lote);
+            lotesAlterados.fire(lote);
+        });
+    }
+
+    private void enviar(TransporteInvalidacao.Mensagem mensagem) {
+        if (QuarkusTransaction.isActive()) {
+            transporte.publicar(mensagem);
+        } else {
+            QuarkusTransaction.requiringNew().run(() -> transporte.publicar(mensagem));
+        }
+        registry.counter(METRICA, "direcao", "publicada").increment();
+    }
+
+    // Os observadores rodam depois do commit, com a sessão fechada: os acessórios do carro já vêm carregados.
+    private static Object carregar(Class<?> tipo, Long id) {
+        if (tipo == Carro.class) {
+            return Carro.find("select c from Carro c left join fetch c.acessorios where c.id = ?1", id).firstResult();
+        }
+        return Panache.getEntityManager().find(tipo, id);
+    }
+
+    /**
+     * O @Version de uma entidade já existente só é incrementado no flush. Inserções ainda não enviadas (como as da
+     * importação em lote) já têm a versão inicial e ficam para o flush em lote do commit.
+     */
+    private static void atualizarVersao(Object entidade) {
+        if (entidade == null) {
+            return;
+        }
+        SessionImplementor sessao = Panache.getEntityManager().unwrap(SessionImplementor.class);
+        EntityEntry entrada = sessao.getPersistenceContextInternal().getEntry(entidade);
+        if (entrada != null && entrada.isExistsInDatabase()) {
+            sessao.flush();
+        }
+    }
+
+    private boolean conhecer(Class<?> tipo, Long id, long versao) {
+        boolean[] nova = {false};
+        versoes.compute(new Chave(tipo, id), (chave, atual) -> {
+            if (atual != null && atual.numero() >= versao) {
+                return atual;
+            }
+            nova[0] = true;
+            return new Versao(versao, System.currentTimeMillis());
+        });
+        return nova[0];
+    }
+
+    // A versão relida de cada carro do lote; os ids que não voltaram foram removidos.
+    private void conhecer(CarrosAlteradosEmLote lote) {
+        Set<Long> existentes = new HashSet<>();
+        for (CarrosAlteradosEmLote.Linha carro : lote.carros()) {
+            existentes.add(carro.id());
+            conhecer(Carro.class, carro.id(), carro.versao());
+        }
+        lote.ids().stream()
+                .filter(id -> !existentes.contains(id))
+                .forEach(id -> conhecer(Carro.class, id, REMOVIDA));
+    }
+
+    private static long versao(EntidadeAlterada alteracao) {
+        if (alteracao.remocao()) {
+            return REMOVIDA;
+        } else if (alteracao.entidade() instanceof Carro c) {
+            return c.versao;
+        } else if (alteracao.entidade() instanceof Marca m) {
+            return m.versao;
+        } else if (alteracao.entidade() instanceof Acessorio a) {
+            return a.versao;
+        } else if (alteracao.entidade() instanceof FichaMarca f) {
+            return f.versao;
+        }
+        return 0;
+    }
+}
@@ -1,21 +1,34 @@
 package org.acme;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
+@Cacheable
+@NamedEntityGraph(name = Marca.GRAFO_PERFIL, attributeNodes = @NamedAttributeNode("perfil"))
 public class Marca extends PanacheEntityBase {
+    public static final String GRAFO_PERFIL = "Marca.perfil";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(readOnly = true)
     public Long id;
 
+    @Version
+    @Schema(readOnly = true)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long versao;
+
     @NotBlank(message = "O nome da marca não pode ser vazio")
     @Size(min = 2, max = 100, message = "O nome da marca deve ter entre 2 e 100 caracteres")
     public String nomeDaMarca;
@@ -47,4 +60,14 @@ public class Marca extends PanacheEntityBase {
         this.paisDeOrigem = paisDeOrigem;
         this.perfil = perfil;
     }
+
+    public static List<Long> idsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return Marca.getEntityManager()
+                .createQuery("select m.id from Marca m where m.id in ?1", Long.class)
+                .setParameter(1, ids)
+                .getResultList();
+    }
 }
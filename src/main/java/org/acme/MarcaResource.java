@@ -1,43 +1,135 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.jpa.SpecHints;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 @Path("/marcas")
+@RunOnVirtualThread
 @Tag(name = "Marcas", description = "Operações para gerenciar as marcas de carros")
 @Produces(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
 @Consumes(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
 public class MarcaResource {
 
+    private static final Map<String, SearchCursor.SortKey<MarcaView>> SORT_KEYS = Map.of(
+            "id", new SearchCursor.SortKey<>(Long.class, false, m -> m.id()),
+            "nomeDaMarca", new SearchCursor.SortKey<>(String.class, false, m -> m.nomeDaMarca()),
+            "paisDeOrigem", new SearchCursor.SortKey<>(String.class, false, m -> m.paisDeOrigem()),
+            "dataDeFundacao", new SearchCursor.SortKey<>(LocalDate.class, true, m -> m.dataDeFundacao())
+    );
+
+    private static final Set<String> CAMPOS_PATCH = Set.of("nomeDaMarca", "nomeCompletoEmpresa", "dataDeFundacao", "paisDeOrigem");
+    private static final Set<String> CAMPOS_PATCH_PERFIL = Set.of("historia", "fundadores", "premiosConquistados");
+
+    private static final Class<?>[] TIPOS_REPRESENTACAO = {Marca.class, FichaMarca.class};
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    MetricasPesquisa metricasPesquisa;
+
+    @Inject
+    IndiceTextual indiceTextual;
+
+    @Inject
+    PaginacaoIndice paginacaoIndice;
+
+    @Inject
+    ExportWriter exportWriter;
+
+    @Inject
+    VersoesColecao versoesColecao;
+
+    @Inject
+    CarrosEmLote carrosEmLote;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Event<EntidadeAlterada> alteracoes;
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(summary = "Listar todas as marcas")
-    public List<Marca> listarTodas() {
-        return Marca.listAll();
+    @APIResponse(
+            responseCode = "200",
+            description = "Lista retornada com sucesso",
+            content = @Content(schema = @Schema(implementation = MarcaView.class, type = SchemaType.ARRAY))
+    )
+    public Response listarTodas(
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,nomeDaMarca,perfil.fundadores); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context Request request,
+            @Context UriInfo uriInfo) {
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, MarcaView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_REPRESENTACAO);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if (naoModificado != null) {
+            return naoModificado.build();
+        }
+        return Response.ok(campos.aplicar(MarcaView.listar(campos, "", Sort.by("id"), List.of(), null))).tag(etag).build();
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Buscar marca por ID")
     @APIResponse(responseCode = "200", description = "Marca encontrada")
+    @APIResponse(responseCode = "304", description = "Marca não modificada desde a ETag enviada em If-None-Match")
     @APIResponse(responseCode = "404", description = "Marca não encontrada")
-    public Response buscarPorId(@PathParam("id") Long id) {
-        return Marca.findByIdOptional(id)
-                .map(marca -> Response.ok(marca).build())
-                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    public Response buscarPorId(@PathParam("id") Long id, @Context Request request) {
+        Optional<MarcaView> marcaOpt = MarcaView.buscar(id);
+        if (marcaOpt.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        EntityTag etag = ETags.de(marcaOpt.get());
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if (naoModificado != null) {
+            return naoModificado.build();
+        }
+        return Response.ok(marcaOpt.get()).tag(etag).build();
     }
 
     @POST
@@ -61,6 +153,10 @@ public class MarcaResource {
                     .build();
         }
         marca.persist();
+        alteracoes.fire(EntidadeAlterada.gravada(Marca.class, marca.id, marca));
+        if (marca.perfil != null) {
+            alteracoes.fire(EntidadeAlterada.gravada(FichaMarca.class, marca.perfil.id, marca.perfil));
+        }
         return Response.status(Response.Status.CREATED).entity(marca).build();
     }
 
@@ -71,10 +167,15 @@ public class MarcaResource {
     @APIResponse(responseCode = "200", description = "Marca atualizada")
     @APIResponse(responseCode = "404", description = "Marca não encontrada")
     @APIResponse(responseCode = "400", description = "Nome já existente")
-    public Response atualizar(@PathParam("id") Long id, @Valid Marca marcaAtualizada) {
+    @APIResponse(responseCode = "412", description = "A ETag enviada em If-Match não corresponde mais à marca")
+    public Response atualizar(@PathParam("id") Long id, @Valid Marca marcaAtualizada, @Context Request request) {
         Optional<Marca> marcaOpt = Marca.findByIdOptional(id);
         if (marcaOpt.isPresent()) {
             Marca marca = marcaOpt.get();
+            Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(marca));
+            if (precondicao != null) {
+                return precondicao.build();
+            }
             boolean existe = Marca.find("lower(nomeDaMarca) = ?1 and id != ?2",
                     marcaAtualizada.nomeDaMarca.toLowerCase(), id).firstResultOptional().isPresent();
             if (existe) {
@@ -83,40 +184,175 @@ public class MarcaResource {
                         .build();
             }
             marca.nomeDaMarca = marcaAtualizada.nomeDaMarca;
-            marca.persist();
-            return Response.ok(marca).build();
+            marca.persistAndFlush();
+            alteracoes.fire(EntidadeAlterada.gravada(Marca.class, marca.id, marca));
+            return Response.ok(marca).tag(ETags.de(marca)).build();
         }
         return Response.status(Response.Status.NOT_FOUND).build();
     }
 
+    @PATCH
+    @Path("/{id}")
+    @Consumes(MergePatch.MEDIA_TYPE)
+    @Transactional
+    @Operation(
+            summary = "Alterar campos de uma marca (merge patch)",
+            description = "Aplica um JSON Merge Patch: só os campos enviados mudam; perfil é mesclado campo a campo e null o remove"
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = MergePatch.MEDIA_TYPE,
+                    schema = @Schema(implementation = Marca.class)
+            )
+    )
+    @APIResponse(responseCode = "200", description = "Marca atualizada")
+    @APIResponse(responseCode = "400", description = "Patch inválido, campo não alterável ou nome já existente")
+    @APIResponse(responseCode = "404", description = "Marca não encontrada")
+    @APIResponse(responseCode = "412", description = "A ETag enviada em If-Match não corresponde mais à marca")
+    public Response patch(@PathParam("id") Long id, InputStream corpo, @Context Request request) {
+        Marca marca = Marca.findById(id);
+        if (marca == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Response.ResponseBuilder precondicao = request.evaluatePreconditions(ETags.de(marca));
+        if (precondicao != null) {
+            return precondicao.build();
+        }
+
+        Long perfilRemovido = null;
+        try {
+            MergePatch patch = MergePatch.ler(objectMapper, corpo);
+            patch.aplicar(objectMapper, marca, CAMPOS_PATCH, Set.of("perfil"));
+            if (patch.nulo("perfil")) {
+                perfilRemovido = marca.perfil != null ? marca.perfil.id : null;
+                marca.perfil = null;
+            } else if (patch.contem("perfil")) {
+                if (marca.perfil == null) {
+                    marca.perfil = new FichaMarca();
+                }
+                patch.aninhado("perfil").aplicar(objectMapper, marca.perfil, CAMPOS_PATCH_PERFIL, Set.of());
+            }
+            String violacoes = MergePatch.violacoes(validator, marca);
+            if (violacoes == null && marca.perfil != null) {
+                violacoes = MergePatch.violacoes(validator, marca.perfil);
+            }
+            if (violacoes != null) {
+                throw new IllegalArgumentException(violacoes);
+            }
+            boolean existe = Marca.find("lower(nomeDaMarca) = ?1 and id != ?2",
+                    marca.nomeDaMarca.toLowerCase(), id).firstResultOptional().isPresent();
+            if (existe) {
+                throw new IllegalArgumentException("Já existe uma marca com esse nome: " + marca.nomeDaMarca);
+            }
+        } catch (IllegalArgumentException e) {
+            // A marca gerenciada já pode ter sido alterada: nada disso pode ser commitado.
+            QuarkusTransaction.setRollbackOnly();
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+
+        marca.persistAndFlush();
+        alteracoes.fire(EntidadeAlterada.gravada(Marca.class, marca.id, marca));
+        if (marca.perfil != null) {
+            alteracoes.fire(EntidadeAlterada.gravada(FichaMarca.class, marca.perfil.id, marca.perfil));
+        }
+        if (perfilRemovido != null) {
+            alteracoes.fire(EntidadeAlterada.removida(FichaMarca.class, perfilRemovido));
+        }
+        return Response.ok(marca).tag(ETags.de(marca)).build();
+    }
+
     @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Path("/buscar")
     @Operation(summary = "Buscar marcas pelo nome")
-    public Response buscarPorNome(@QueryParam("nome") String nome) {
+    public Response buscarPorNome(
+            @QueryParam("nome") String nome,
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,nomeDaMarca,perfil.fundadores); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context Request request,
+            @Context UriInfo uriInfo) {
         if (nome == null || nome.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("O parâmetro 'nome' é obrigatório.")
                     .build();
         }
-        List<Marca> marcas = Marca.list("lower(nomeDaMarca) LIKE ?1", "%" + nome.toLowerCase() + "%");
-        return Response.ok(marcas).build();
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, MarcaView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_REPRESENTACAO);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if (naoModificado != null) {
+            return naoModificado.build();
+        }
+        List<MarcaView> marcas = MarcaView.listar(campos, "lower(nomeDaMarca) LIKE ?1", Sort.by("id"),
+                List.of("%" + nome.toLowerCase() + "%"), null);
+        return Response.ok(campos.aplicar(marcas)).tag(etag).build();
     }
 
     @DELETE
     @Path("/{id}")
     @Transactional
-    @Operation(summary = "Deletar uma marca")
+    @Operation(
+            summary = "Deletar uma marca",
+            description = "Com cascade=true os carros da marca são removidos junto, com comandos set-based"
+    )
     @APIResponse(responseCode = "204", description = "Marca deletada")
     @APIResponse(responseCode = "404", description = "Marca não encontrada")
-    public Response deletar(@PathParam("id") Long id) {
-        boolean deletado = Marca.deleteById(id);
-        if (deletado) {
-            return Response.noContent().build();
+    @APIResponse(responseCode = "409", description = "A marca possui carros e cascade não foi informado")
+    public Response deletar(
+            @PathParam("id") Long id,
+            @Parameter(description = "Remove também os carros da marca")
+            @QueryParam("cascade") @DefaultValue("false") boolean cascade) {
+        Marca marca = Marca.findById(id);
+        if (marca == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.status(Response.Status.NOT_FOUND).build();
+        if (cascade) {
+            // Os carros saem antes, sem serem carregados; assim o cascade de Marca.carros encontra a coleção vazia.
+            carrosEmLote.removerDaMarca(id);
+        } else {
+            long carros = Carro.count("marca.id", id);
+            if (carros > 0) {
+                return Response.status(Response.Status.CONFLICT)
+                        .entity("Não é possível deletar a marca. Existem " + carros + " carro(s) vinculado(s); use cascade=true para removê-los.")
+                        .build();
+            }
+        }
+        Long perfilId = marca.perfil != null ? marca.perfil.id : null;
+
+        marca.delete();
+        alteracoes.fire(EntidadeAlterada.removida(Marca.class, id));
+        if (perfilId != null) {
+            alteracoes.fire(EntidadeAlterada.removida(FichaMarca.class, perfilId));
+        }
+        return Response.noContent().build();
     }
 
     @GET
+    @Path("/export")
+    @Produces({ExportWriter.NDJSON, ExportWriter.CSV})
+    @Operation(
+            summary = "Exporta todos os marcas em streaming (export)",
+            description = "Escreve os marcas incrementalmente em NDJSON ou CSV, com uso de memória constante independente do tamanho da tabela"
+    )
+    @APIResponse(responseCode = "200", description = "Exportação iniciada")
+    @APIResponse(responseCode = "400", description = "Formato inválido")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String formato){
+        return exportWriter.exportar(formato, "marcas",
+                () -> comPerfil(Marca.findAll(Sort.by("id"))),
+                lote -> {},
+                List.of("id", "nomeDaMarca", "nomeCompletoEmpresa", "dataDeFundacao", "paisDeOrigem"),
+                m -> Arrays.asList(m.id, m.nomeDaMarca, m.nomeCompletoEmpresa, m.dataDeFundacao, m.paisDeOrigem));
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
     @Operation(
             summary = "Retorna as marcas conforme o sistema de pesquisa (search)",
             description = "Retorna uma lista de marcas filtrada conforme a pesquisa por padrão no formato JSON"
@@ -129,45 +365,141 @@ public class MarcaResource {
     public Response search(
             @Parameter(description = "Query de busca por nome, país de origem ou nome artístico")
             @QueryParam("q") String q,
-            @Parameter(description = "Campo de ordenação da lista de retorno")
+            @Parameter(description = "Campo de ordenação da lista de retorno; 'relevancia' ordena pelo casamento com q")
             @QueryParam("sort") @DefaultValue("id") String sort,
             @Parameter(description = "Esquema de filtragem de marcas por ordem crescente ou decrescente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @Parameter(description = "Define qual página será retornada na response")
             @QueryParam("page") @DefaultValue("0") int page,
             @Parameter(description = "Define quantos objetos serão retornados por query")
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @Parameter(description = "Cursor opaco (NextCursor) para paginação por keyset; vazio inicia do começo")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Campos retornados, separados por vírgula (ex.: id,nomeDaMarca,perfil.fundadores); vazio retorna todos")
+            @QueryParam("fields") String fields,
+            @Context UriInfo uriInfo,
+            @Context Request request
     ){
-        Set<String> allowed = Set.of("id", "nomeDaMarca", "paisDeOrigem", "dataDeFundacao");
-        if(!allowed.contains(sort)){
+        CamposEsparsos campos;
+        try {
+            campos = CamposEsparsos.de(fields, MarcaView.class);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        EntityTag etag = versoesColecao.etag(uriInfo, TIPOS_REPRESENTACAO);
+        Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+        if(naoModificado != null){
+            return naoModificado.build();
+        }
+
+        Timer.Sample amostra = metricasPesquisa.iniciar();
+        int effectivePage = Math.max(page, 0);
+        String termo = SearchCountCache.normalize(q);
+        List<IndiceTextual.Resultado> encontrados = termo.isEmpty() ? null : indiceTextual.buscar(Marca.class, termo);
+
+        if(encontrados != null && IndiceTextual.RELEVANCIA.equals(sort)){
+            PaginacaoIndice.Pagina<MarcaView> pagina;
+            try {
+                pagina = paginacaoIndice.porRelevancia(encontrados, effectivePage, size, cursor,
+                        ids -> MarcaView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), MarcaView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, "indice", IndiceTextual.RELEVANCIA, cursor, campos, etag, amostra);
+        }
+        if(!SORT_KEYS.containsKey(sort)){
             sort = "id";
         }
+        boolean desc = "desc".equalsIgnoreCase(direction);
+        SearchCursor.SortKey<MarcaView> sortKey = SORT_KEYS.get(sort);
+        Sort sortObj = SearchCursor.sort(sort, desc, sortKey);
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        if (encontrados != null && !indiceTextual.cabeNaConsulta(encontrados)) {
+            PaginacaoIndice.Pagina<MarcaView> pagina;
+            try {
+                pagina = paginacaoIndice.porCampo(Marca.class, encontrados, sort, desc, sortKey, effectivePage, size, cursor,
+                        ids -> MarcaView.listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null), MarcaView::id, uriInfo);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+            }
+            return responderIndice(pagina, "indice", sort, cursor, campos, etag, amostra);
+        }
 
-        int effectivePage = Math.max(page, 0);
+        String filtro = "";
+        String formaFiltro = "nenhum";
+        List<Object> params = new ArrayList<>();
+
+        if (encontrados != null) {
+            if (!encontrados.isEmpty()) {
+                params.add(IndiceTextual.ids(encontrados));
+            }
+            filtro = encontrados.isEmpty() ? "1 = 0" : "id in ?1";
+            formaFiltro = "indice";
+        }
 
-        PanacheQuery<Marca> query;
+        PanacheQuery<Marca> query = filtro.isEmpty() ? Marca.findAll(sortObj) : Marca.find(filtro, sortObj, params.toArray());
+        long total = "indice".equals(formaFiltro) ? encontrados.size() : countCache.count(Marca.class, termo, query::count);
+        int totalPages = (int) Math.ceil((double) total / size);
 
-        if (q == null || q.isBlank()) {
-            query = Marca.findAll(sortObj);
+        var response = new SearchMarcaResponse();
+        List<MarcaView> marcas;
+        if (cursor == null) {
+            marcas = MarcaView.listar(campos, filtro, sortObj, params, Page.of(effectivePage, size));
+            response.HasMore = effectivePage < totalPages - 1;
         } else {
-            query = Marca.find(
-                    "lower(nomeDaMarca) like ?1 or lower(paisDeOrigem) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+            if (!cursor.isBlank()) {
+                SearchCursor after;
+                try {
+                    after = SearchCursor.decode(cursor, sort, desc, sortKey);
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+                }
+                String seek = after.predicate(params, sortKey);
+                filtro = filtro.isEmpty() ? seek : "(" + filtro + ") and " + seek;
+            }
+            marcas = MarcaView.listar(campos, filtro, sortObj, params, Page.ofSize(size + 1));
+            response.HasMore = marcas.size() > size;
+            if (response.HasMore) {
+                marcas = marcas.subList(0, size);
+            }
         }
 
-        List<Marca> marcas = query.page(effectivePage, size).list();
+        response.Marcas = marcas;
+        response.TotalMarcas = total;
+        response.TotalPages = totalPages;
+        if (response.HasMore && !marcas.isEmpty()) {
+            MarcaView last = marcas.get(marcas.size() - 1);
+            response.NextCursor = SearchCursor.after(sort, desc, sortKey, last, last.id()).encode();
+            response.NextPage = (cursor == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1)
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor))
+                    .build().toString();
+        } else {
+            response.NextPage = "";
+        }
 
+        metricasPesquisa.registrar(amostra, "marcas", formaFiltro, sort, cursor != null, marcas.size(), total);
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
+
+    /**
+     * Resposta das páginas montadas por PaginacaoIndice: relevância ou resultados do índice acima de busca.indice.max-ids.
+     */
+    private Response responderIndice(PaginacaoIndice.Pagina<MarcaView> pagina, String formaFiltro, String sort, String cursor,
+                                     CamposEsparsos campos, EntityTag etag, Timer.Sample amostra){
         var response = new SearchMarcaResponse();
-        response.Marcas = marcas;
-        response.TotalMarcas = query.list().size();
-        response.TotalPages = query.pageCount();
-        response.HasMore = effectivePage < query.pageCount() - 1;
-        response.NextPage = response.HasMore ? "http://localhost:8080/marcas/search?q="+(q != null ? q : "")+"&page="+(effectivePage + 1) + (size > 0 ? "&size="+size : "") : "";
+        response.Marcas = pagina.itens();
+        response.TotalMarcas = pagina.total();
+        response.TotalPages = pagina.totalPages();
+        response.HasMore = pagina.temMais();
+        response.NextCursor = pagina.proximoCursor();
+        response.NextPage = pagina.proximaPagina();
+
+        metricasPesquisa.registrar(amostra, "marcas", formaFiltro, sort, cursor != null, pagina.itens().size(), pagina.total());
+        return Response.ok(campos.aplicar(response)).tag(etag).build();
+    }
 
-        return Response.ok(response).build();
+    private static PanacheQuery<Marca> comPerfil(PanacheQuery<Marca> query) {
+        return query.withHint(SpecHints.HINT_SPEC_FETCH_GRAPH, Marca.getEntityManager().getEntityGraph(Marca.GRAFO_PERFIL));
     }
 }
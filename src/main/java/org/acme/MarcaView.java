@@ -0,0 +1,97 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Representação de leitura de uma marca com o perfil (mesmo JSON da entidade). A marca é projetada da consulta
+ * com o id do perfil, e os perfis da página vêm numa segunda consulta por ids.
+ */
+@JsonFilter(CamposEsparsos.FILTRO)
+public record MarcaView(Long id, long versao, String nomeDaMarca, String nomeCompletoEmpresa, LocalDate dataDeFundacao,
+                        String paisDeOrigem, FichaMarcaView perfil) {
+
+    public record Linha(Long id, long versao, String nomeDaMarca, String nomeCompletoEmpresa, LocalDate dataDeFundacao,
+                        String paisDeOrigem, @ProjectedFieldName("perfil.id") Long perfilId) {
+    }
+
+    public static MarcaView de(Marca marca) {
+        return new MarcaView(marca.id, marca.versao, marca.nomeDaMarca, marca.nomeCompletoEmpresa, marca.dataDeFundacao,
+                marca.paisDeOrigem, FichaMarcaView.de(marca.perfil));
+    }
+
+    /**
+     * Executa a consulta de marcas (com filtro, ordenação e página já definidos) como projeção.
+     */
+    public static List<MarcaView> listar(PanacheQuery<Marca> query) {
+        return montar(query.withHint(HibernateHints.HINT_CACHEABLE, true).project(Linha.class).list());
+    }
+
+    /**
+     * Marcas que atendem ao filtro (HQL sobre Marca, sem alias, parâmetros posicionais) na ordem e página pedidas;
+     * pagina nula traz todas. Com ?fields= o SELECT leva só o id, os campos pedidos e os da ordenação, e o perfil
+     * só é consultado se algum campo dele foi pedido.
+     */
+    public static List<MarcaView> listar(CamposEsparsos campos, String filtro, Sort sort, List<Object> params, Page pagina) {
+        if (campos.todos()) {
+            PanacheQuery<Marca> query = filtro.isEmpty() ? Marca.findAll(sort) : Marca.find(filtro, sort, params.toArray());
+            return listar(pagina == null ? query : query.page(pagina));
+        }
+        List<String> colunas = campos.colunas(MarcaView.class, sort);
+        boolean comPerfil = campos.inclui(MarcaView.class, "perfil");
+        if (comPerfil) {
+            colunas.add("perfil.id");
+        }
+        List<Map<String, Object>> linhas = CamposEsparsos.consultar(Marca.class, colunas, filtro, sort, params, pagina);
+        Map<Long, FichaMarcaView> perfis = comPerfil ? FichaMarcaView.porIds(CamposEsparsos.ids(linhas, "perfil.id")) : Map.of();
+        return linhas.stream()
+                .map(l -> {
+                    l.put("perfil", perfis.get(l.get("perfil.id")));
+                    return CamposEsparsos.instanciar(MarcaView.class, l);
+                })
+                .toList();
+    }
+
+    public static Optional<MarcaView> buscar(Long id) {
+        return listar(Marca.find("id", id)).stream().findFirst();
+    }
+
+    static Map<Long, MarcaView> porIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return listar(Marca.find("id in ?1", ids)).stream().collect(Collectors.toMap(MarcaView::id, Function.identity()));
+    }
+
+    static Map<Long, MarcaView> porIds(Collection<Long> ids, CamposEsparsos campos) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return listar(campos, "id in ?1", Sort.by("id"), List.<Object>of(ids), null).stream()
+                .collect(Collectors.toMap(MarcaView::id, Function.identity()));
+    }
+
+    private static List<MarcaView> montar(List<Linha> linhas) {
+        Map<Long, FichaMarcaView> perfis = FichaMarcaView.porIds(linhas.stream()
+                .map(Linha::perfilId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return linhas.stream()
+                .map(l -> new MarcaView(l.id(), l.versao(), l.nomeDaMarca(), l.nomeCompletoEmpresa(), l.dataDeFundacao(),
+                        l.paisDeOrigem(), l.perfilId() != null ? perfis.get(l.perfilId()) : null))
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package org.acme;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.Set;
+
+/**
+ * Marca com um cookie o momento da última escrita bem-sucedida do cliente, usado pelo RoteadorLeituras
+ * para mandar as leituras seguintes ao primário durante a janela de consistência.
+ */
+@Provider
+public class MarcadorEscritaRecente implements ContainerResponseFilter {
+
+    private static final Set<String> LEITURAS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    @Inject
+    RoteadorLeituras roteador;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (!roteador.ativo() || LEITURAS.contains(request.getMethod()) || response.getStatus() >= 400) {
+            return;
+        }
+        NewCookie cookie = new NewCookie.Builder(RoteadorLeituras.COOKIE_ESCRITA)
+                .value(String.valueOf(System.currentTimeMillis()))
+                .path("/")
+                .maxAge((int) Math.max(1, (roteador.janelaConsistencia().toMillis() + 999) / 1000))
+                .httpOnly(true)
+                .build();
+        response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+    }
+}
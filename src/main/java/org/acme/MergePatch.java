@@ -0,0 +1,125 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JSON Merge Patch (RFC 7386) sobre uma entidade gerenciada: cada campo presente substitui o da entidade, null o
+ * limpa e os ausentes ficam como estão. Só os campos escalares são copiados aqui; relacionamentos ficam com quem
+ * chama. Com @DynamicUpdate nas entidades, o UPDATE leva apenas as colunas que mudaram de fato.
+ */
+public final class MergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectNode patch;
+
+    private MergePatch(ObjectNode patch) {
+        this.patch = patch;
+    }
+
+    /**
+     * @throws IllegalArgumentException se o corpo não for um objeto JSON
+     */
+    public static MergePatch ler(ObjectMapper mapper, InputStream corpo) {
+        try {
+            return de(mapper.readTree(corpo), "corpo");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getMessage());
+        }
+    }
+
+    public boolean contem(String campo) {
+        return patch.has(campo);
+    }
+
+    public boolean nulo(String campo) {
+        return patch.has(campo) && patch.get(campo).isNull();
+    }
+
+    public JsonNode valor(String campo) {
+        return patch.get(campo);
+    }
+
+    /**
+     * Patch de um objeto aninhado (ex.: "perfil" dentro de uma marca).
+     */
+    public MergePatch aninhado(String campo) {
+        return de(patch.get(campo), campo);
+    }
+
+    /**
+     * Copia para a entidade os campos escalares presentes no patch. Um campo fora de escalares e de relacionamentos
+     * (id, versao ou desconhecido) é recusado, assim como null num campo primitivo.
+     *
+     * @throws IllegalArgumentException com a lista de problemas
+     */
+    public void aplicar(ObjectMapper mapper, Object entidade, Set<String> escalares, Set<String> relacionamentos) {
+        List<String> erros = new ArrayList<>();
+        ObjectNode campos = mapper.createObjectNode();
+        for (Iterator<String> nomes = patch.fieldNames(); nomes.hasNext(); ) {
+            String nome = nomes.next();
+            if (escalares.contains(nome)) {
+                if (patch.get(nome).isNull() && primitivo(entidade, nome)) {
+                    erros.add(nome + ": não pode ser nulo");
+                }
+                campos.set(nome, patch.get(nome));
+            } else if (!relacionamentos.contains(nome)) {
+                erros.add(nome + ": não pode ser alterado");
+            }
+        }
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", erros));
+        }
+        try {
+            mapper.readerForUpdating(entidade).readValue(campos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Valor inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Valor inválido: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Violações das constraints da entidade depois do patch, no mesmo formato da importação em lote; null se válida.
+     */
+    public static String violacoes(Validator validator, Object entidade) {
+        Set<ConstraintViolation<Object>> violacoes = validator.validate(entidade);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static MergePatch de(JsonNode node, String nome) {
+        if (!(node instanceof ObjectNode objeto)) {
+            throw new IllegalArgumentException(nome + ": o merge patch precisa ser um objeto JSON");
+        }
+        return new MergePatch(objeto);
+    }
+
+    private static boolean primitivo(Object entidade, String campo) {
+        try {
+            return entidade.getClass().getField(campo).getType().isPrimitive();
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+}
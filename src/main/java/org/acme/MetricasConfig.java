@@ -0,0 +1,40 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Liga p50/p95/p99 e buckets de histograma (agregáveis no Prometheus com histogram_quantile)
+ * nas latências HTTP por endpoint e status e nas durações das pesquisas.
+ */
+@Singleton
+public class MetricasConfig {
+
+    private static final Set<String> LATENCIAS = Set.of("http.server.requests", MetricasPesquisa.DURACAO);
+
+    @Produces
+    @Singleton
+    public MeterFilter histogramasDeLatencia() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!LATENCIAS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Métricas dos endpoints de pesquisa, com tags pelo formato da pesquisa (entidade, filtro, ordenação e tipo de paginação)
+ * para identificar qual combinação está custando mais. Todas as tags têm cardinalidade fechada.
+ */
+@ApplicationScoped
+public class MetricasPesquisa {
+
+    static final String DURACAO = "pesquisa.duracao";
+    static final String LINHAS_RETORNADAS = "pesquisa.linhas.retornadas";
+    static final String LINHAS_CONTADAS = "pesquisa.linhas.contadas";
+
+    @Inject
+    MeterRegistry registry;
+
+    public Timer.Sample iniciar() {
+        return Timer.start(registry);
+    }
+
+    public void registrar(Timer.Sample amostra, String entidade, String filtro, String sort, boolean cursor, int retornadas, long contadas) {
+        Tags tags = Tags.of(
+                "entidade", entidade,
+                "filtro", filtro,
+                "sort", sort,
+                "paginacao", cursor ? "cursor" : "offset");
+        amostra.stop(Timer.builder(DURACAO)
+                .description("Tempo de execução da pesquisa, sem a serialização da resposta")
+                .tags(tags)
+                .register(registry));
+        Counter.builder(LINHAS_RETORNADAS)
+                .description("Linhas devolvidas na página")
+                .tags(tags)
+                .register(registry)
+                .increment(retornadas);
+        Counter.builder(LINHAS_CONTADAS)
+                .description("Total de linhas que atendem ao filtro (valor usado em TotalPages)")
+                .tags(tags)
+                .register(registry)
+                .increment(contadas);
+    }
+}
@@ -0,0 +1,16 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OperacaoEmLoteResponse {
+    public long Afetados;
+    public List<Long> NaoEncontrados = new ArrayList<>();
+
+    public OperacaoEmLoteResponse() {}
+
+    public OperacaoEmLoteResponse(long afetados, List<Long> naoEncontrados) {
+        this.Afetados = afetados;
+        this.NaoEncontrados = naoEncontrados;
+    }
+}
@@ -0,0 +1,19 @@
+package org.acme;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+@Provider
+public class OptimisticLockExceptionMapper implements ExceptionMapper<OptimisticLockException> {
+
+    @Override
+    public Response toResponse(OptimisticLockException exception) {
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .type(MediaType.TEXT_PLAIN)
+                .entity("O registro foi alterado por outra requisição. Recarregue e tente novamente.")
+                .build();
+    }
+}
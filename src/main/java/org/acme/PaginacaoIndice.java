@@ -0,0 +1,110 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.TypedQuery;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação das pesquisas por q respondidas pelo IndiceTextual, comum a carros, marcas e acessórios: por relevância,
+ * sobre o ranking em memória, ou por campo quando os resultados são demais para um só "id in (...)".
+ * Cursor inválido gera IllegalArgumentException, como em SearchCursor.decode.
+ */
+@ApplicationScoped
+public class PaginacaoIndice {
+
+    @Inject
+    IndiceTextual indiceTextual;
+
+    public record Pagina<V>(List<V> itens, long total, int totalPages, boolean temMais, String proximoCursor, String proximaPagina) {
+    }
+
+    /**
+     * Página do ranking por relevância; carregar recebe os ids da página e devolve as views em qualquer ordem.
+     */
+    public <V> Pagina<V> porRelevancia(List<IndiceTextual.Resultado> ranking, int page, int size, String cursor,
+                                       Function<List<Long>, List<V>> carregar, Function<V, Long> id, UriInfo uriInfo) {
+        IndiceTextual.Pagina pagina = IndiceTextual.paginar(ranking, page, size, cursor);
+        List<V> itens = pagina.ids().isEmpty() ? List.of() : IndiceTextual.ordenar(carregar.apply(pagina.ids()), pagina.ids(), id);
+        return new Pagina<>(itens, ranking.size(), totalPages(ranking.size(), size), pagina.temMais(), pagina.proximoCursor(),
+                pagina.temMais() ? proximaPagina(uriInfo, page, cursor, pagina.proximoCursor()) : "");
+    }
+
+    /**
+     * Página de encontrados ordenada por sort, por offset (cursor null) ou a partir do cursor. Só os ids casados
+     * são consultados no banco (ver naOrdem) e só as views da página são carregadas.
+     */
+    public <V> Pagina<V> porCampo(Class<?> entidade, List<IndiceTextual.Resultado> encontrados, String sort, boolean desc,
+                                  SearchCursor.SortKey<V> sortKey, int page, int size, String cursor,
+                                  Function<List<Long>, List<V>> carregar, Function<V, Long> id, UriInfo uriInfo) {
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor, sort, desc, sortKey);
+        long total = encontrados.size();
+        int inicio = cursor == null ? (int) Math.min((long) page * size, total) : 0;
+        List<Long> ordenados = naOrdem(entidade, IndiceTextual.ids(encontrados), sort, desc, sortKey, after, inicio + size + 1);
+        List<Long> ids = ordenados.subList(Math.min(inicio, ordenados.size()), Math.min(inicio + size, ordenados.size()));
+        boolean temMais = ordenados.size() > inicio + size;
+        List<V> itens = ids.isEmpty() ? List.of() : IndiceTextual.ordenar(carregar.apply(ids), ids, id);
+
+        String proximoCursor = null;
+        String proximaPagina = "";
+        if (temMais && !itens.isEmpty()) {
+            V last = itens.get(itens.size() - 1);
+            proximoCursor = SearchCursor.after(sort, desc, sortKey, last, id.apply(last)).encode();
+            proximaPagina = proximaPagina(uriInfo, page, cursor, proximoCursor);
+        }
+        return new Pagina<>(itens, total, totalPages(total, size), temMais, proximoCursor, proximaPagina);
+    }
+
+    /**
+     * Os primeiros limite ids na ordem de sort, depois de after quando houver. Cada lote de até busca.indice.max-ids
+     * ids vira um "id in (...) order by ... limit" no banco e os lotes são intercalados aqui, sem varrer a tabela.
+     * A intercalação usa compareTo, que coincide com a ordem do banco para números, datas e texto sem collation.
+     */
+    private List<Long> naOrdem(Class<?> entidade, List<Long> ids, String sort, boolean desc, SearchCursor.SortKey<?> sortKey,
+                               SearchCursor after, int limite) {
+        String orderBy = SearchCursor.orderBy(SearchCursor.sort(sort, desc, sortKey));
+        int lote = indiceTextual.maxIds();
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += lote) {
+            List<Object> params = new ArrayList<>();
+            params.add(ids.subList(i, Math.min(i + lote, ids.size())));
+            String filtro = "id in ?1" + (after == null ? "" : " and " + after.predicate(params, sortKey));
+            TypedQuery<Object[]> query = Panache.getEntityManager()
+                    .createQuery("select " + sort + ", id from " + entidade.getSimpleName() + " where " + filtro + orderBy, Object[].class)
+                    .setMaxResults(limite);
+            for (int p = 0; p < params.size(); p++) {
+                query.setParameter(p + 1, params.get(p));
+            }
+            linhas.addAll(query.getResultList());
+        }
+        linhas.sort(desc ? ((a, b) -> comparar(b, a)) : PaginacaoIndice::comparar);
+        return linhas.stream().limit(limite).map(l -> (Long) l[1]).toList();
+    }
+
+    /**
+     * (valor, id) com nulos antes de qualquer valor, como em SearchCursor.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int comparar(Object[] a, Object[] b) {
+        Comparable valor = (Comparable) a[0];
+        int cmp = valor == null ? (b[0] == null ? 0 : -1) : b[0] == null ? 1 : valor.compareTo(b[0]);
+        return cmp != 0 ? cmp : Long.compare((Long) a[1], (Long) b[1]);
+    }
+
+    private static int totalPages(long total, int size) {
+        return (int) Math.ceil((double) total / size);
+    }
+
+    private static String proximaPagina(UriInfo uriInfo, int page, String cursor, String proximoCursor) {
+        return (cursor == null
+                ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", page + 1)
+                : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", proximoCursor))
+                .build().toString();
+    }
+}
@@ -0,0 +1,96 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Escreve as respostas em CBOR ou Smile para os endpoints que os declaram no @Produces, com a mesma configuração
+ * do ObjectMapper do JSON (mesmos nomes de campos e formato de datas), só que em representação binária.
+ */
+@Provider
+@Produces({RepresentacaoBinaria.CBOR, RepresentacaoBinaria.SMILE})
+public class RepresentacaoBinaria implements MessageBodyWriter<Object> {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private static final MediaType TIPO_CBOR = MediaType.valueOf(CBOR);
+    private static final MediaType TIPO_SMILE = MediaType.valueOf(SMILE);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    @PostConstruct
+    void init() {
+        cbor = objectMapper.copyWith(new CBORFactory()).configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        smile = objectMapper.copyWith(new SmileFactory()).configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    /**
+     * Tipo binário que a negociação vai escolher para este Accept (CBOR ou SMILE), ou null quando vence o JSON.
+     * Usado para que as ETags de JSON e das representações binárias da mesma URL não coincidam.
+     */
+    static String preferido(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        return Stream.of(accept.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .flatMap(RepresentacaoBinaria::tipo)
+                .filter(t -> qualidade(t) > 0)
+                .sorted(Comparator.comparingDouble(RepresentacaoBinaria::qualidade).reversed())
+                .filter(t -> MediaType.APPLICATION_JSON_TYPE.isCompatible(t) || TIPO_CBOR.isCompatible(t) || TIPO_SMILE.isCompatible(t))
+                .findFirst()
+                .map(t -> t.isWildcardSubtype() ? null : TIPO_CBOR.isCompatible(t) ? CBOR : TIPO_SMILE.isCompatible(t) ? SMILE : null)
+                .orElse(null);
+    }
+
+    // Uma entrada que não é um media type válido é ignorada, como se não tivesse sido enviada.
+    private static Stream<MediaType> tipo(String valor) {
+        try {
+            return Stream.of(MediaType.valueOf(valor));
+        } catch (IllegalArgumentException e) {
+            return Stream.empty();
+        }
+    }
+
+    private static double qualidade(MediaType tipo) {
+        try {
+            return Double.parseDouble(tipo.getParameters().getOrDefault("q", "1"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return TIPO_CBOR.isCompatible(mediaType) || TIPO_SMILE.isCompatible(mediaType);
+    }
+
+    @Override
+    public void writeTo(Object valor, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream out) throws IOException {
+        ObjectMapper mapper = TIPO_CBOR.isCompatible(mediaType) ? cbor : smile;
+        mapper.writerFor(mapper.constructType(genericType != null ? genericType : type)).writeValue(out, valor);
+    }
+}
@@ -0,0 +1,115 @@
+package org.acme;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.Arc;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escolhe o datasource de cada sessão do Hibernate (multitenancy DATABASE, um "tenant" por datasource):
+ * GET e HEAD vão para uma das réplicas de replicas.datasources, e todo o resto fica no primário.
+ * Um cliente que escreveu há menos de replicas.janela-consistencia (cookie de MarcadorEscritaRecente) lê do primário,
+ * para enxergar a própria escrita mesmo com atraso de replicação.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class RoteadorLeituras implements TenantResolver {
+
+    static final String COOKIE_ESCRITA = "ultima-escrita";
+    static final String METRICA = "banco.sessoes";
+
+    @ConfigProperty(name = "replicas.datasources")
+    Optional<List<String>> replicas;
+
+    @ConfigProperty(name = "replicas.selecao", defaultValue = "round-robin")
+    String selecao;
+
+    @ConfigProperty(name = "replicas.janela-consistencia", defaultValue = "5s")
+    Duration janela;
+
+    @Inject
+    Instance<RoutingContext> requisicao;
+
+    @Inject
+    @Any
+    Instance<AgroalDataSource> dataSources;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    @Override
+    public String getDefaultTenantId() {
+        return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        String fonte = escolher();
+        registry.counter(METRICA, "fonte", fonte).increment();
+        return fonte;
+    }
+
+    public boolean ativo() {
+        return replicas.isPresent() && !replicas.get().isEmpty();
+    }
+
+    public Duration janelaConsistencia() {
+        return janela;
+    }
+
+    private String escolher() {
+        if (!ativo() || !Arc.container().requestContext().isActive()) {
+            return getDefaultTenantId();
+        }
+        HttpServerRequest request = requisicao.get().request();
+        if (request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) {
+            return getDefaultTenantId();
+        }
+        if (escreveuHaPouco(request.getCookie(COOKIE_ESCRITA))) {
+            return getDefaultTenantId();
+        }
+        List<String> nomes = replicas.get();
+        return "menos-carregada".equals(selecao)
+                ? nomes.stream().min(Comparator.comparingLong(this::carga)).orElseThrow()
+                : nomes.get(Math.floorMod(proxima.getAndIncrement(), nomes.size()));
+    }
+
+    private boolean escreveuHaPouco(Cookie cookie) {
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < janela.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Conexões em uso mais requisições esperando por uma, segundo as métricas do Agroal.
+     */
+    private long carga(String nome) {
+        var metricas = dataSources.select(new DataSource.DataSourceLiteral(nome)).get().getMetrics();
+        return metricas.activeCount() + metricas.awaitingCount();
+    }
+}
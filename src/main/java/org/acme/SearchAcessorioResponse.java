@@ -4,9 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class SearchAcessorioResponse {
-    public List<Acessorio> Acessorios = new ArrayList<>();
+    public List<AcessorioView> Acessorios = new ArrayList<>();
     public long TotalAcessorios;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
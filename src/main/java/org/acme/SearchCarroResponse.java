@@ -4,9 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class SearchCarroResponse {
-    public List<Carro> Carros = new ArrayList<>();
+    public List<CarroView> Carros = new ArrayList<>();
     public long TotalCarros;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
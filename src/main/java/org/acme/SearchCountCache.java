@@ -0,0 +1,86 @@
+package org.acme;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de curta duração para os totais das pesquisas, chaveado por (entidade, q normalizado).
+ * Cada alteração commitada (EntidadeAlterada) invalida as contagens daquele tipo de entidade.
+ */
+@ApplicationScoped
+public class SearchCountCache {
+
+    @ConfigProperty(name = "search.count-cache.ttl", defaultValue = "30s")
+    Duration ttl;
+
+    @ConfigProperty(name = "search.count-cache.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public long count(Class<?> entity, String q, LongSupplier counter) {
+        Key key = new Key(entity, normalize(q));
+        long now = System.nanoTime();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.expiresAt - now > 0) {
+            registry.counter("pesquisa.contagem.cache", "entidade", entity.getSimpleName(), "resultado", "hit").increment();
+            return cached.total;
+        }
+        registry.counter("pesquisa.contagem.cache", "entidade", entity.getSimpleName(), "resultado", "miss").increment();
+
+        long generation = generation(entity).get();
+        long total = counter.getAsLong();
+        if (generation(entity).get() == generation) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(e -> e.expiresAt - now <= 0);
+                if (entries.size() >= maxEntries) {
+                    entries.clear();
+                }
+            }
+            entries.put(key, new Entry(total, now + ttl.toNanos()));
+        }
+        return total;
+    }
+
+    void onAlteracao(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        invalidate(alteracao.tipo());
+    }
+
+    void onAlteracaoEmLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        invalidate(Carro.class);
+    }
+
+    public void invalidate(Class<?> entity) {
+        generation(entity).incrementAndGet();
+        entries.keySet().removeIf(k -> k.entity() == entity);
+    }
+
+    static String normalize(String q) {
+        return q == null ? "" : q.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private AtomicLong generation(Class<?> entity) {
+        return generations.computeIfAbsent(entity, e -> new AtomicLong());
+    }
+
+    private record Key(Class<?> entity, String q) {
+    }
+
+    private record Entry(long total, long expiresAt) {
+    }
+}
@@ -0,0 +1,109 @@
+package org.acme;
+
+import io.quarkus.panache.common.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cursor opaco da paginação por keyset: guarda a última tupla (campo de ordenação, id) entregue ao cliente,
+ * para que a próxima página seja buscada com um predicado de seek em vez de OFFSET.
+ * Nulos são tratados como o menor valor possível, independentemente do banco.
+ */
+public record SearchCursor(String sort, boolean desc, Object value, long id) {
+
+    public record SortKey<T>(Class<?> type, boolean nullable, Function<T, Object> extractor) {
+    }
+
+    public static <T> SearchCursor after(String sort, boolean desc, SortKey<T> key, T last, long id) {
+        return new SearchCursor(sort, desc, key.extractor().apply(last), id);
+    }
+
+    public static Sort sort(String sort, boolean desc, SortKey<?> key) {
+        Sort.Direction direction = desc ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        Sort sortObj = key.nullable()
+                ? Sort.by(sort, direction, desc ? Sort.NullPrecedence.NULLS_LAST : Sort.NullPrecedence.NULLS_FIRST)
+                : Sort.by(sort, direction);
+        return "id".equals(sort) ? sortObj : sortObj.and("id", direction);
+    }
+
+    /**
+     * O "order by" de sort em HQL, para as consultas montadas fora do Panache; vazio sem colunas.
+     */
+    public static String orderBy(Sort sort) {
+        if (sort.getColumns().isEmpty()) {
+            return "";
+        }
+        return sort.getColumns().stream()
+                .map(c -> c.getName()
+                        + (c.getDirection() == Sort.Direction.Descending ? " desc" : "")
+                        + (c.getNullPrecedence() == null ? "" : c.getNullPrecedence() == Sort.NullPrecedence.NULLS_FIRST ? " nulls first" : " nulls last"))
+                .collect(Collectors.joining(", ", " order by ", ""));
+    }
+
+    public String encode() {
+        String raw = sort + "|" + (desc ? "desc" : "asc") + "|" + id + (value == null ? "" : "|" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token, String sort, boolean desc, SortKey<?> key) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length < 3 || !parts[0].equals(sort) || !parts[1].equals(desc ? "desc" : "asc")) {
+            throw new IllegalArgumentException("Cursor inválido para a ordenação " + sort + " " + (desc ? "desc" : "asc"));
+        }
+        try {
+            long id = Long.parseLong(parts[2]);
+            Object value = parts.length == 4 ? parse(key.type(), parts[3]) : null;
+            return new SearchCursor(sort, desc, value, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Monta o predicado de seek usando parâmetros posicionais a partir de params.size() + 1.
+     */
+    public String predicate(List<Object> params, SortKey<?> key) {
+        String cmp = desc ? "<" : ">";
+        params.add(id);
+        String idParam = "?" + params.size();
+        if ("id".equals(sort)) {
+            return "id " + cmp + " " + idParam;
+        }
+        if (value == null) {
+            return desc
+                    ? "(" + sort + " is null and id < " + idParam + ")"
+                    : "((" + sort + " is null and id > " + idParam + ") or " + sort + " is not null)";
+        }
+        params.add(value);
+        String valueParam = "?" + params.size();
+        String seek = sort + " " + cmp + " " + valueParam + " or (" + sort + " = " + valueParam + " and id " + cmp + " " + idParam + ")";
+        return key.nullable() && desc ? "(" + seek + " or " + sort + " is null)" : "(" + seek + ")";
+    }
+
+    private static Object parse(Class<?> type, String raw) {
+        if (type == Long.class) {
+            return Long.valueOf(raw);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(raw);
+        }
+        if (type == Double.class) {
+            return Double.valueOf(raw);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(raw);
+        }
+        return raw;
+    }
+}
@@ -4,9 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class SearchMarcaResponse {
-    public List<Marca> Marcas = new ArrayList<>();
+    public List<MarcaView> Marcas = new ArrayList<>();
     public long TotalMarcas;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
@@ -0,0 +1,37 @@
+package org.acme;
+
+import java.util.List;
+
+/**
+ * Meio pelo qual as instâncias trocam invalidações de cache (InvalidacaoDistribuida). Cada implementação é um bean
+ * com @Identifier, escolhido por invalidacao.transporte.
+ */
+public interface TransporteInvalidacao {
+
+    /**
+     * Entidade alterada por uma instância: tipo é o nome simples da classe e versao o @Version depois da escrita
+     * (Long.MAX_VALUE em remoções). Num lote de CarrosEmLote, ids traz os carros afetados e id é o número do lote,
+     * único por origem; versao não é usada.
+     */
+    record Mensagem(String tipo, long id, long versao, String origem, List<Long> ids) {
+
+        public Mensagem(String tipo, long id, long versao, String origem) {
+            this(tipo, id, versao, origem, List.of());
+        }
+
+        public boolean lote() {
+            return !ids.isEmpty();
+        }
+    }
+
+    /**
+     * Chamado dentro da transação da escrita, para que a mensagem só exista se a escrita for commitada.
+     */
+    void publicar(Mensagem mensagem);
+
+    /**
+     * Mensagens das outras instâncias publicadas desde a chamada anterior, na ordem em que foram publicadas.
+     * Pode repetir mensagens já entregues; quem recebe descarta as que não são mais novas que a versão conhecida.
+     */
+    List<Mensagem> receber(String origem);
+}
@@ -0,0 +1,66 @@
+package org.acme;
+
+import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.Identifier;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Transporte padrão: a tabela Invalidacao no banco que as instâncias já compartilham, sem outra infraestrutura.
+ * Cada leitura volta invalidacao.margem no tempo, para não perder linhas de transações que commitaram depois de
+ * uma leitura com um criadoEm anterior a ela (ou gravadas por uma instância com o relógio um pouco atrasado).
+ */
+@ApplicationScoped
+@Identifier("tabela")
+public class TransporteTabela implements TransporteInvalidacao {
+
+    @ConfigProperty(name = "invalidacao.margem", defaultValue = "10s")
+    Duration margem;
+
+    @ConfigProperty(name = "invalidacao.retencao", defaultValue = "10m")
+    Duration retencao;
+
+    private volatile Instant ultimaLeitura = Instant.now();
+    private volatile Instant ultimaLimpeza = Instant.now();
+
+    @Override
+    public void publicar(Mensagem mensagem) {
+        Invalidacao linha = new Invalidacao();
+        linha.tipo = mensagem.tipo();
+        linha.entidadeId = mensagem.id();
+        linha.versao = mensagem.versao();
+        linha.origem = mensagem.origem();
+        linha.criadoEm = Instant.now();
+        linha.ids = mensagem.lote()
+                ? mensagem.ids().stream().map(String::valueOf).collect(Collectors.joining(","))
+                : null;
+        linha.persist();
+    }
+
+    @Override
+    @Transactional
+    public List<Mensagem> receber(String origem) {
+        Instant agora = Instant.now();
+        List<Invalidacao> linhas = Invalidacao.list("criadoEm >= ?1 and origem <> ?2",
+                Sort.by("criadoEm").and("id"), ultimaLeitura.minus(margem), origem);
+        ultimaLeitura = agora;
+        if (agora.isAfter(ultimaLimpeza.plus(retencao))) {
+            Invalidacao.delete("criadoEm < ?1", agora.minus(retencao));
+            ultimaLimpeza = agora;
+        }
+        return linhas.stream()
+                .map(l -> new Mensagem(l.tipo, l.entidadeId, l.versao, l.origem, ids(l.ids)))
+                .toList();
+    }
+
+    private static List<Long> ids(String ids) {
+        return ids == null ? List.of() : Arrays.stream(ids.split(",")).map(Long::valueOf).toList();
+    }
+}
@@ -0,0 +1,33 @@
+package org.acme;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.List;
+
+/**
+ * Nos endpoints que negociam JSON/CBOR/Smile, avisa os caches intermediários (Vary) de que a resposta depende
+ * do Accept e, por causa da compressão, do Accept-Encoding.
+ */
+@Provider
+public class VariacaoPorAccept implements ContainerResponseFilter {
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Produces produces = resourceInfo.getResourceMethod() != null
+                ? resourceInfo.getResourceMethod().getAnnotation(Produces.class)
+                : null;
+        if (produces != null && List.of(produces.value()).contains(RepresentacaoBinaria.CBOR)) {
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+}
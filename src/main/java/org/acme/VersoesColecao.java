@@ -0,0 +1,100 @@
+package org.acme;
+
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.UriInfo;
+import org.hibernate.Session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETag dos endpoints de coleção (listas e pesquisas), derivada do estado do banco que todas as instâncias
+ * compartilham: por tipo de entidade, quantidade de linhas, soma das versões (@Version) e maior id. Qualquer
+ * inserção, alteração ou remoção muda a assinatura, e duas instâncias sobre os mesmos dados geram a mesma tag, então
+ * um If-None-Match continua valendo atrás de um balanceador. A assinatura de cada tipo é consultada uma vez e
+ * guardada até a próxima alteração do tipo, local ou recebida de outra instância (InvalidacaoDistribuida); cada
+ * alteração custa, portanto, uma agregação sobre a tabela inteira na leitura seguinte. Leituras servidas por réplicas
+ * fazem essa agregação a cada requisição.
+ * O formato negociado (JSON, CBOR ou Smile) também entra na tag, já que cada um é uma representação diferente da
+ * mesma URL.
+ */
+@ApplicationScoped
+public class VersoesColecao {
+
+    private final Map<Class<?>, String> assinaturas = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> geracoes = new ConcurrentHashMap<>();
+
+    @Inject
+    Instance<RoutingContext> requisicao;
+
+    void onAlteracao(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntidadeAlterada alteracao) {
+        invalidar(alteracao.tipo());
+    }
+
+    void onAlteracaoEmLote(@Observes(during = TransactionPhase.AFTER_SUCCESS) CarrosAlteradosEmLote lote) {
+        invalidar(Carro.class);
+    }
+
+    public EntityTag etag(UriInfo uriInfo, Class<?>... tipos) {
+        StringBuilder valor = new StringBuilder();
+        for (Class<?> tipo : tipos) {
+            valor.append(assinatura(tipo)).append('.');
+        }
+        valor.append('|').append(uriInfo.getRequestUri().getRawPath());
+        String query = uriInfo.getRequestUri().getRawQuery();
+        if (query != null) {
+            valor.append('?').append(query);
+        }
+        String formato = RepresentacaoBinaria.preferido(requisicao.get().request().getHeader(HttpHeaders.ACCEPT));
+        if (formato != null) {
+            valor.append('|').append(formato);
+        }
+        return ETags.hash(valor.toString());
+    }
+
+    private String assinatura(Class<?> tipo) {
+        EntityManager em = Panache.getEntityManager();
+        // Numa réplica (RoteadorLeituras) a assinatura sai do mesmo banco que o corpo da resposta e não fica guardada:
+        // uma réplica atrasada não pode deixar uma tag velha no cache nem receber a tag do primário.
+        boolean primario = DataSourceUtil.DEFAULT_DATASOURCE_NAME.equals(em.unwrap(Session.class).getTenantIdentifierValue());
+        String guardada = primario ? assinaturas.get(tipo) : null;
+        if (guardada != null) {
+            return guardada;
+        }
+        AtomicLong geracao = geracao(tipo);
+        long inicio = geracao.get();
+        Object[] linha = em
+                .createQuery("select count(e), coalesce(sum(e.versao), 0), coalesce(max(e.id), 0) from "
+                        + tipo.getSimpleName() + " e", Object[].class)
+                .getSingleResult();
+        String assinatura = linha[0] + "-" + linha[1] + "-" + linha[2];
+        // Uma alteração durante a consulta pode não estar na assinatura lida: nesse caso ela não fica guardada.
+        if (primario && geracao.get() == inicio) {
+            assinaturas.put(tipo, assinatura);
+            if (geracao.get() != inicio) {
+                assinaturas.remove(tipo);
+            }
+        }
+        return assinatura;
+    }
+
+    private void invalidar(Class<?> tipo) {
+        geracao(tipo).incrementAndGet();
+        assinaturas.remove(tipo);
+    }
+
+    private AtomicLong geracao(Class<?> tipo) {
+        return geracoes.computeIfAbsent(tipo, t -> new AtomicLong());
+    }
+}
@@ -0,0 +1,61 @@
+-- Esquema inicial, equivalente ao gerado pelo Hibernate a partir das entidades (SQL compatível com H2 e PostgreSQL).
+
+create table FichaMarca (
+    id bigint generated by default as identity,
+    versao bigint not null,
+    historia varchar(255),
+    fundadores varchar(255),
+    premiosConquistados varchar(255),
+    primary key (id)
+);
+
+create table Marca (
+    id bigint generated by default as identity,
+    versao bigint not null,
+    nomeDaMarca varchar(100),
+    nomeCompletoEmpresa varchar(255),
+    dataDeFundacao date,
+    paisDeOrigem varchar(80),
+    perfil_marca_id bigint,
+    primary key (id),
+    constraint uk_marca_perfil unique (perfil_marca_id),
+    constraint fk_marca_perfil foreign key (perfil_marca_id) references FichaMarca (id)
+);
+
+create table Acessorio (
+    id bigint generated by default as identity,
+    versao bigint not null,
+    nome varchar(50),
+    descricao varchar(200),
+    primary key (id)
+);
+
+create sequence carro_seq start with 1 increment by 50;
+
+create table Carro (
+    id bigint not null,
+    versao bigint not null,
+    modelo varchar(200),
+    descricao varchar(2000),
+    anoFabricacao integer not null,
+    avaliacao double precision not null,
+    cilindradas integer not null,
+    marca_id bigint,
+    primary key (id),
+    constraint fk_carro_marca foreign key (marca_id) references Marca (id)
+);
+
+create index idx_carro_ano on Carro (anoFabricacao, id);
+create index idx_carro_avaliacao on Carro (avaliacao, id);
+create index idx_carro_cilindradas on Carro (cilindradas, id);
+create index idx_carro_marca on Carro (marca_id, id);
+
+create table carro_acessorio (
+    carro_id bigint not null,
+    acessorio_id bigint not null,
+    primary key (carro_id, acessorio_id),
+    constraint fk_carro_acessorio_carro foreign key (carro_id) references Carro (id),
+    constraint fk_carro_acessorio_acessorio foreign key (acessorio_id) references Acessorio (id)
+);
+
+create index idx_carro_acessorio_acessorio on carro_acessorio (acessorio_id, carro_id);
@@ -0,0 +1,27 @@
+-- Dados iniciais. Em dev e nos testes o Hibernate carrega este mesmo arquivo (quarkus.hibernate-orm.sql-load-script).
+
+-- FichaMarca
+insert into FichaMarca (versao, historia, fundadores, premiosConquistados) values (0, 'História da Ford.', 'Henry Ford', 'Carro do Ano da América do Norte');
+insert into FichaMarca (versao, historia, fundadores, premiosConquistados) values (0, 'História da Tesla.', 'Elon Musk', 'Inovação da TIME Magazine');
+
+-- Marca
+insert into Marca (versao, nomeDaMarca, paisDeOrigem, perfil_marca_id) values (0, 'Ford', 'Estados Unidos', 1);
+insert into Marca (versao, nomeDaMarca, paisDeOrigem, perfil_marca_id) values (0, 'Tesla', 'Estados Unidos', 2);
+
+-- Acessorio
+insert into Acessorio (versao, nome, descricao) values (0, 'Ar Condicionado', 'Sistema de resfriamento.');
+insert into Acessorio (versao, nome, descricao) values (0, 'GPS', 'Navegação por satélite.');
+insert into Acessorio (versao, nome, descricao) values (0, 'Teto Solar', 'Vidro panorâmico.');
+
+-- Carro (ids vêm de uma sequence com incremento 50; o restart deixa os ids gerados acima dos fixos daqui)
+insert into Carro (id, versao, modelo, anoFabricacao, marca_id, descricao, avaliacao, cilindradas) values (1, 0, 'Mustang', 2023, 1, 'Carro esportivo lendário', 9.5, 5000);
+insert into Carro (id, versao, modelo, anoFabricacao, marca_id, descricao, avaliacao, cilindradas) values (2, 0, 'Fusion', 2020, 1, 'Sedan confortável e seguro.', 8.5, 2500);
+insert into Carro (id, versao, modelo, anoFabricacao, marca_id, descricao, avaliacao, cilindradas) values (3, 0, 'Model S', 2023, 2, 'Carro elétrico de luxo.', 9.9, 0);
+alter sequence carro_seq restart with 101;
+
+-- Relacionamento carro_acessorio
+insert into carro_acessorio (carro_id, acessorio_id) values(1, 1);
+insert into carro_acessorio (carro_id, acessorio_id) values(1, 2);
+insert into carro_acessorio (carro_id, acessorio_id) values(2, 1);
+insert into carro_acessorio (carro_id, acessorio_id) values(3, 1);
+insert into carro_acessorio (carro_id, acessorio_id) values(3, 3);
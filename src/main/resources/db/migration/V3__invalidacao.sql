@@ -0,0 +1,17 @@
+-- Barramento de invalidação entre instâncias (TransporteTabela): uma linha por escrita (ou por lote de carros),
+-- apagada após a retenção.
+
+create table Invalidacao (
+    id bigint not null,
+    tipo varchar(40) not null,
+    entidadeId bigint not null,
+    versao bigint not null,
+    origem varchar(40) not null,
+    criadoEm timestamp(6) with time zone not null,
+    ids varchar(20000),
+    primary key (id)
+);
+
+create sequence invalidacao_seq start with 1 increment by 50;
+
+create index idx_invalidacao_criado on Invalidacao (criadoEm, id);
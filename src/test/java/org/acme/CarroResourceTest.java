@@ -0,0 +1,576 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class CarroResourceTest {
+
+    @Inject
+    EntityManagerFactory emf;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void testSearchStatementCountDoesNotGrowWithPageSize() {
+        long umCarro = statementsFor("/carros/search?size=1", "Carros", 1);
+        long tresCarros = statementsFor("/carros/search?size=3", "Carros", 3);
+        assertEquals(umCarro, tresCarros);
+    }
+
+    @Test
+    void testMarcaSearchStatementCountDoesNotGrowWithPageSize() {
+        long umaMarca = statementsFor("/marcas/search?size=1", "Marcas", 1);
+        long duasMarcas = statementsFor("/marcas/search?size=2", "Marcas", 2);
+        assertEquals(umaMarca, duasMarcas);
+    }
+
+    @Test
+    void testSearchWithFieldsReturnsOnlyRequestedFields() {
+        given()
+          .when().get("/carros/search?size=2&fields=id,modelo,marca.nomeDaMarca")
+          .then()
+             .statusCode(200)
+             .body("Carros[0].keySet()", containsInAnyOrder("id", "modelo", "marca"))
+             .body("Carros[0].marca.keySet()", contains("nomeDaMarca"));
+    }
+
+    @Test
+    void testSearchWithFieldsSkipsUnrequestedQueries() {
+        long completo = statementsFor("/carros/search?size=3", "Carros", 3);
+        long esparso = statementsFor("/carros/search?size=3&fields=id,modelo", "Carros", 3);
+        assertTrue(esparso < completo);
+    }
+
+    @Test
+    void testSearchWithUnknownFieldIsBadRequest() {
+        given()
+          .when().get("/carros/search?fields=id,motor")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testGetByIdIsServedFromMemoryAfterFirstRead() {
+        given().when().get("/carros/2").then().statusCode(200);
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        given()
+          .when().get("/carros/2")
+          .then()
+             .statusCode(200)
+             .body("modelo", is("Fusion"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDeleteByIdsRemovesOnlyExistingCars() {
+        given()
+          .contentType("application/x-ndjson")
+          .body("{\"modelo\": \"Ranger Lote\", \"descricao\": \"Carro para remover em lote.\", \"anoFabricacao\": 2022, "
+                  + "\"avaliacao\": 7.0, \"cilindradas\": 3200, \"marca\": {\"id\": 1}, \"acessorios\": [{\"id\": 2}]}")
+          .when().post("/carros/bulk")
+          .then()
+             .statusCode(200)
+             .body("Inseridos", is(1));
+        int id = given().when().get("/carros/search?q=Ranger Lote").then().statusCode(200).extract().path("Carros[0].id");
+
+        given()
+          .when().delete("/carros?ids=" + id + ",999999")
+          .then()
+             .statusCode(200)
+             .body("Afetados", is(1))
+             .body("NaoEncontrados", contains(999999));
+        given().when().get("/carros/" + id).then().statusCode(404);
+    }
+
+    @Test
+    void testBulkPatchRequiresFilterAndFields() {
+        given()
+          .contentType("application/json")
+          .body("{\"avaliacao\": 5.0}")
+          .when().patch("/carros")
+          .then()
+             .statusCode(400);
+        given()
+          .contentType("application/json")
+          .body("{}")
+          .when().patch("/carros?anoMin=2000")
+          .then()
+             .statusCode(400);
+        given()
+          .contentType("application/json")
+          .body("{\"avaliacao\": 5.0}")
+          .when().patch("/carros?anoMin=3000")
+          .then()
+             .statusCode(200)
+             .body("Afetados", is(0));
+        given()
+          .contentType("application/json")
+          .body("{\"descricao\": \"   \"}")
+          .when().patch("/carros?anoMin=3000")
+          .then()
+             .statusCode(400);
+        given()
+          .contentType("application/json")
+          .body("{\"descricao\": \"\"}")
+          .when().patch("/carros?anoMin=3000")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testBulkPatchIsVisibleInGetByIdAndSearch() {
+        given()
+          .contentType("application/x-ndjson")
+          .body("{\"modelo\": \"Bel Air Lote\", \"descricao\": \"Carro para alterar em lote.\", \"anoFabricacao\": 1901, "
+                  + "\"avaliacao\": 6.0, \"cilindradas\": 4300, \"marca\": {\"id\": 1}, \"acessorios\": [{\"id\": 2}]}")
+          .when().post("/carros/bulk")
+          .then()
+             .statusCode(200)
+             .body("Inseridos", is(1));
+        int id = given().when().get("/carros/search?q=Bel Air Lote").then().statusCode(200).extract().path("Carros[0].id");
+        int versao = given().when().get("/carros/" + id).then().statusCode(200).extract().path("versao");
+
+        given()
+          .contentType("application/json")
+          .body("{\"descricao\": \"Restaurado pela oficina.\", \"avaliacao\": 9.1}")
+          .when().patch("/carros?anoMin=1901&anoMax=1901")
+          .then()
+             .statusCode(200)
+             .body("Afetados", is(1));
+
+        given()
+          .when().get("/carros/" + id)
+          .then()
+             .statusCode(200)
+             .body("versao", is(versao + 1))
+             .body("descricao", is("Restaurado pela oficina."))
+             .body("avaliacao", is(9.1f))
+             .body("acessorios.id", contains(2));
+        given()
+          .when().get("/carros/search?q=oficina")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(id))
+             .body("Carros[0].descricao", is("Restaurado pela oficina."));
+
+        given().when().delete("/carros?ids=" + id).then().statusCode(200).body("Afetados", is(1));
+    }
+
+    @Test
+    void testDeleteMarcaWithCarsRequiresCascade() {
+        given()
+          .when().delete("/marcas/1")
+          .then()
+             .statusCode(409);
+    }
+
+    @Test
+    void testMergePatchChangesOnlySentFields() {
+        given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .body("{\"avaliacao\": 8.7, \"acessorios\": [{\"id\": 1}, {\"id\": 3}]}")
+          .when().patch("/carros/2")
+          .then()
+             .statusCode(200)
+             .body("avaliacao", is(8.7f))
+             .body("modelo", is("Fusion"))
+             .body("marca.id", is(1))
+             .body("acessorios.id", containsInAnyOrder(1, 3));
+
+        given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .body("{\"avaliacao\": 8.5, \"acessorios\": [{\"id\": 1}]}")
+          .when().patch("/carros/2")
+          .then()
+             .statusCode(200)
+             .body("acessorios.id", contains(1));
+    }
+
+    @Test
+    void testMergePatchRejectsReadOnlyAndInvalidFields() {
+        given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .body("{\"versao\": 10}")
+          .when().patch("/carros/2")
+          .then()
+             .statusCode(400);
+        given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .body("{\"avaliacao\": 11}")
+          .when().patch("/carros/2")
+          .then()
+             .statusCode(400);
+        given().when().get("/carros/2").then().statusCode(200).body("avaliacao", is(8.5f));
+    }
+
+    @Test
+    void testCarrosOfAcessorioArePagedByCursor() {
+        String nextCursor = given()
+          .when().get("/acessorios/1/carros?size=2&cursor=")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(1, 2))
+             .body("HasMore", is(true))
+             .extract().path("NextCursor");
+
+        given()
+          .queryParam("size", 2)
+          .queryParam("cursor", nextCursor)
+          .when().get("/acessorios/1/carros")
+          .then()
+             .statusCode(200)
+             .body("Carros[0].id", is(3));
+        given().when().get("/acessorios/999999/carros").then().statusCode(404);
+    }
+
+    @Test
+    void testIfNoneMatchWithCurrentEtagIsNotModified() {
+        String carro = given().when().get("/carros/3").then().statusCode(200).extract().header("ETag");
+        given()
+          .header("If-None-Match", carro)
+          .when().get("/carros/3")
+          .then()
+             .statusCode(304);
+
+        String pesquisa = given().when().get("/carros/search?size=2").then().statusCode(200).extract().header("ETag");
+        given()
+          .header("If-None-Match", pesquisa)
+          .when().get("/carros/search?size=2")
+          .then()
+             .statusCode(304);
+    }
+
+    @Test
+    void testStaleIfMatchIsPreconditionFailed() {
+        given()
+          .contentType("application/x-ndjson")
+          .body("{\"modelo\": \"Opala Etag\", \"descricao\": \"Carro para testar If-Match.\", \"anoFabricacao\": 1975, "
+                  + "\"avaliacao\": 7.5, \"cilindradas\": 4100, \"marca\": {\"id\": 1}, \"acessorios\": [{\"id\": 2}]}")
+          .when().post("/carros/bulk")
+          .then()
+             .statusCode(200)
+             .body("Inseridos", is(1));
+        int id = given().when().get("/carros/search?q=Opala Etag").then().statusCode(200).extract().path("Carros[0].id");
+        String antiga = given().when().get("/carros/" + id).then().statusCode(200).extract().header("ETag");
+
+        String atual = given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .header("If-Match", antiga)
+          .body("{\"avaliacao\": 8.0}")
+          .when().patch("/carros/" + id)
+          .then()
+             .statusCode(200)
+             .extract().header("ETag");
+        assertNotEquals(antiga, atual);
+
+        given()
+          .contentType(MergePatch.MEDIA_TYPE)
+          .header("If-Match", antiga)
+          .body("{\"avaliacao\": 9.0}")
+          .when().patch("/carros/" + id)
+          .then()
+             .statusCode(412);
+        given()
+          .contentType("application/json")
+          .header("If-Match", antiga)
+          .body("{\"modelo\": \"Opala Etag\", \"descricao\": \"Alteração com tag antiga.\", \"anoFabricacao\": 1975, "
+                  + "\"avaliacao\": 9.0, \"cilindradas\": 4100, \"marca\": {\"id\": 1}}")
+          .when().put("/carros/" + id)
+          .then()
+             .statusCode(412);
+        given().when().get("/carros/" + id).then().statusCode(200).body("avaliacao", is(8.0f));
+
+        given().when().delete("/carros?ids=" + id).then().statusCode(200).body("Afetados", is(1));
+    }
+
+    @Test
+    void testCollectionEtagChangesAfterInsertAndDelete() {
+        String antes = given().when().get("/carros/search?size=2").then().statusCode(200).extract().header("ETag");
+
+        given()
+          .contentType("application/x-ndjson")
+          .body("{\"modelo\": \"Maverick Etag\", \"descricao\": \"Carro para testar a ETag da lista.\", \"anoFabricacao\": 1974, "
+                  + "\"avaliacao\": 7.0, \"cilindradas\": 5000, \"marca\": {\"id\": 1}, \"acessorios\": [{\"id\": 2}]}")
+          .when().post("/carros/bulk")
+          .then()
+             .statusCode(200)
+             .body("Inseridos", is(1));
+        String depoisDoInsert = given()
+          .header("If-None-Match", antes)
+          .when().get("/carros/search?size=2")
+          .then()
+             .statusCode(200)
+             .extract().header("ETag");
+        assertNotEquals(antes, depoisDoInsert);
+
+        int id = given().when().get("/carros/search?q=Maverick Etag").then().statusCode(200).extract().path("Carros[0].id");
+        given().when().delete("/carros?ids=" + id).then().statusCode(200).body("Afetados", is(1));
+        String depoisDoDelete = given()
+          .header("If-None-Match", depoisDoInsert)
+          .when().get("/carros/search?size=2")
+          .then()
+             .statusCode(200)
+             .extract().header("ETag");
+        assertNotEquals(depoisDoInsert, depoisDoDelete);
+    }
+
+    @Test
+    void testSearchTotalsComeFromCount() {
+        given()
+          .when().get("/carros/search?q=2023&size=1")
+          .then()
+             .statusCode(200)
+             .body("Carros.size()", is(1))
+             .body("TotalCarros", is(2))
+             .body("TotalPages", is(2))
+             .body("HasMore", is(true));
+    }
+
+    @Test
+    void testSearchCountIsCachedUntilCarsChange() {
+        given().when().get("/carros/search?q=1975").then().statusCode(200).body("TotalCarros", is(0));
+        double hits = contagensEmCache();
+        given().when().get("/carros/search?q=1975").then().statusCode(200).body("TotalCarros", is(0));
+        assertEquals(1, contagensEmCache() - hits);
+
+        int id = inserir("Opala Contagem", 1975, 1);
+        given().when().get("/carros/search?q=1975").then().statusCode(200).body("TotalCarros", is(1));
+
+        given().when().delete("/carros?ids=" + id).then().statusCode(200).body("Afetados", is(1));
+        given().when().get("/carros/search?q=1975").then().statusCode(200).body("TotalCarros", is(0));
+    }
+
+    @Test
+    void testSearchIsPagedByCursor() {
+        String nextCursor = given()
+          .when().get("/carros/search?sort=avaliacao&direction=desc&size=2&cursor=")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(3, 1))
+             .body("HasMore", is(true))
+             .extract().path("NextCursor");
+
+        given()
+          .queryParam("sort", "avaliacao")
+          .queryParam("direction", "desc")
+          .queryParam("size", 2)
+          .queryParam("cursor", nextCursor)
+          .when().get("/carros/search")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(2))
+             .body("HasMore", is(false));
+    }
+
+    @Test
+    void testMarcaAndAcessorioSearchArePagedByCursor() {
+        String marcas = given()
+          .when().get("/marcas/search?size=1&cursor=")
+          .then()
+             .statusCode(200)
+             .body("Marcas.id", contains(1))
+             .extract().path("NextCursor");
+        given()
+          .queryParam("size", 1)
+          .queryParam("cursor", marcas)
+          .when().get("/marcas/search")
+          .then()
+             .statusCode(200)
+             .body("Marcas.id", contains(2));
+
+        String acessorios = given()
+          .when().get("/acessorios/search?size=2&cursor=")
+          .then()
+             .statusCode(200)
+             .body("Acessorios.id", contains(1, 2))
+             .extract().path("NextCursor");
+        given()
+          .queryParam("size", 2)
+          .queryParam("cursor", acessorios)
+          .when().get("/acessorios/search")
+          .then()
+             .statusCode(200)
+             .body("Acessorios[0].id", is(3));
+    }
+
+    @Test
+    void testCursorFromAnotherSortIsBadRequest() {
+        String nextCursor = given()
+          .when().get("/carros/search?size=1&cursor=")
+          .then()
+             .statusCode(200)
+             .extract().path("NextCursor");
+
+        given()
+          .queryParam("sort", "modelo")
+          .queryParam("cursor", nextCursor)
+          .when().get("/carros/search")
+          .then()
+             .statusCode(400);
+        given()
+          .queryParam("cursor", "nao-e-um-cursor")
+          .when().get("/carros/search")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testExportWritesOneCarPerNdjsonLine() {
+        String corpo = given()
+          .when().get("/carros/export")
+          .then()
+             .statusCode(200)
+             .header("Content-Type", containsString(ExportWriter.NDJSON))
+             .header("Content-Disposition", containsString("carros.ndjson"))
+             .extract().asString();
+
+        String[] linhas = corpo.strip().split("\n");
+        assertEquals(3, linhas.length);
+        assertTrue(linhas[0].contains("\"modelo\":\"Mustang\""));
+        assertTrue(linhas[2].contains("\"modelo\":\"Model S\""));
+    }
+
+    @Test
+    void testExportWritesCsvWithHeader() {
+        String corpo = given()
+          .when().get("/carros/export?format=csv")
+          .then()
+             .statusCode(200)
+             .header("Content-Type", containsString(ExportWriter.CSV))
+             .extract().asString();
+
+        String[] linhas = corpo.split("\r\n");
+        assertEquals("id,modelo,descricao,anoFabricacao,avaliacao,cilindradas,marcaId,marca,acessorios", linhas[0]);
+        assertTrue(linhas[1].startsWith("1,Mustang,Carro esportivo lendário,2023,"));
+        assertTrue(linhas[1].endsWith(",1,Ford,1;2"));
+        given().when().get("/carros/export?format=xml").then().statusCode(400);
+    }
+
+    @Test
+    void testSearchWithTypedFilters() {
+        given()
+          .when().get("/carros/search?anoMin=2021&size=10")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(1, 3))
+             .body("TotalCarros", is(2));
+        given()
+          .when().get("/carros/search?marcaId=1&cilindradasMax=3000")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(2));
+        given()
+          .when().get("/carros/search?acessorio=1&acessorio=3&avaliacaoMin=9.6")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(3));
+        given()
+          .when().get("/carros/search?q=carro&marcaId=2")
+          .then()
+             .statusCode(200)
+             .body("Carros.id", contains(3))
+             .body("TotalCarros", is(1));
+    }
+
+    @Test
+    void testSearchWithInvalidTypedFiltersIsBadRequest() {
+        given()
+          .when().get("/carros/search?anoMin=2024&anoMax=2020")
+          .then()
+             .statusCode(400);
+        given()
+          .when().get("/carros/search?avaliacaoMin=11")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testFacetsCountEachFacetIgnoringItsOwnFilter() {
+        given()
+          .when().get("/carros/facets")
+          .then()
+             .statusCode(200)
+             .body("TotalCarros", is(3))
+             .body("Marcas.find { it.Valor == '1' }.Quantidade", is(2))
+             .body("Acessorios.find { it.Valor == '1' }.Quantidade", is(3))
+             .body("AnosFabricacao.Valor", contains("2020-2029"));
+
+        given()
+          .when().get("/carros/facets?marcaId=2")
+          .then()
+             .statusCode(200)
+             .body("TotalCarros", is(1))
+             .body("Marcas.find { it.Valor == '1' }.Quantidade", is(2))
+             .body("Acessorios.find { it.Valor == '3' }.Quantidade", is(1));
+        given().when().get("/carros/facets?anoMin=2024&anoMax=2020").then().statusCode(400);
+    }
+
+    @Test
+    void testFacetsFollowInsertsAndDeletes() {
+        int id = inserir("Corcel Facetas", 1975, 2);
+        given()
+          .when().get("/carros/facets")
+          .then()
+             .statusCode(200)
+             .body("TotalCarros", is(4))
+             .body("AnosFabricacao.find { it.Valor == '1970-1979' }.Quantidade", is(1));
+
+        given().when().delete("/carros?ids=" + id).then().statusCode(200).body("Afetados", is(1));
+        given()
+          .when().get("/carros/facets")
+          .then()
+             .statusCode(200)
+             .body("TotalCarros", is(3))
+             .body("AnosFabricacao.Valor", contains("2020-2029"));
+    }
+
+    private long statementsFor(String path, String listField, int expectedItems) {
+        // A primeira chamada aquece o cache de contagem das pesquisas.
+        given().when().get(path).then().statusCode(200);
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        given()
+          .when().get(path)
+          .then()
+             .statusCode(200)
+             .body(listField + ".size()", is(expectedItems));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int inserir(String modelo, int anoFabricacao, long marcaId) {
+        given()
+          .contentType("application/x-ndjson")
+          .body("{\"modelo\": \"" + modelo + "\", \"descricao\": \"Carro de teste.\", \"anoFabricacao\": " + anoFabricacao + ", "
+                  + "\"avaliacao\": 7.0, \"cilindradas\": 4100, \"marca\": {\"id\": " + marcaId + "}, \"acessorios\": [{\"id\": 2}]}")
+          .when().post("/carros/bulk")
+          .then()
+             .statusCode(200)
+             .body("Inseridos", is(1));
+        return given().when().get("/carros/search?q=" + modelo).then().statusCode(200).extract().path("Carros[0].id");
+    }
+
+    private double contagensEmCache() {
+        Counter counter = registry.find("pesquisa.contagem.cache").tag("entidade", "Carro").tag("resultado", "hit").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
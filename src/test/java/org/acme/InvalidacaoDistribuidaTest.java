@@ -0,0 +1,68 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class InvalidacaoDistribuidaTest {
+
+    @Inject
+    InvalidacaoDistribuida invalidacao;
+
+    @Inject
+    EntityManagerFactory emf;
+
+    @Test
+    void testEscritaDeOutraInstanciaInvalidaOCarroEmMemoria() {
+        int versao = given().when().get("/carros/3").then().statusCode(200).extract().path("versao");
+        String descricao = given().when().get("/carros/3").then().statusCode(200).extract().path("descricao");
+
+        // Outra instância altera o carro direto no banco e publica a alteração.
+        QuarkusTransaction.requiringNew().run(() -> {
+            Carro.getEntityManager()
+                    .createNativeQuery("update Carro set descricao = 'Alterado em outra instância', versao = versao + 1 where id = 3")
+                    .executeUpdate();
+            publicarDeOutraInstancia(versao + 1);
+        });
+        given().when().get("/carros/3").then().statusCode(200).body("descricao", is(descricao));
+
+        invalidacao.sincronizar();
+        given().when().get("/carros/3").then().statusCode(200).body("descricao", is("Alterado em outra instância"));
+
+        // Mensagem repetida (ou relida dentro da margem) não invalida de novo.
+        QuarkusTransaction.requiringNew().run(() -> publicarDeOutraInstancia(versao + 1));
+        invalidacao.sincronizar();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        given().when().get("/carros/3").then().statusCode(200);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        QuarkusTransaction.requiringNew().run(() -> Carro.getEntityManager()
+                .createNativeQuery("update Carro set descricao = ?1, versao = versao + 1 where id = 3")
+                .setParameter(1, descricao)
+                .executeUpdate());
+        QuarkusTransaction.requiringNew().run(() -> publicarDeOutraInstancia(versao + 2));
+        invalidacao.sincronizar();
+    }
+
+    private static void publicarDeOutraInstancia(long versao) {
+        Invalidacao linha = new Invalidacao();
+        linha.tipo = "Carro";
+        linha.entidadeId = 3;
+        linha.versao = versao;
+        linha.origem = "outra-instancia";
+        linha.criadoEm = Instant.now();
+        linha.persist();
+    }
+}
@@ -0,0 +1,76 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(RoteamentoReplicasTest.DuasReplicas.class)
+class RoteamentoReplicasTest {
+
+    public static class DuasReplicas implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.datasource.\"replica1\".active", "true",
+                    "quarkus.datasource.\"replica2\".active", "true",
+                    "replicas.datasources", "replica1,replica2",
+                    "replicas.janela-consistencia", "1m");
+        }
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void testLeiturasAlternamEntreAsReplicas() {
+        double replica1 = sessoes("replica1");
+        double replica2 = sessoes("replica2");
+
+        given().when().get("/carros/search?size=1").then().statusCode(200);
+        given().when().get("/carros/search?size=2").then().statusCode(200);
+
+        assertEquals(1, sessoes("replica1") - replica1);
+        assertEquals(1, sessoes("replica2") - replica2);
+    }
+
+    @Test
+    void testClienteQueEscreveuLeDoPrimario() {
+        String ultimaEscrita = given()
+                .contentType(ContentType.JSON)
+                .body("{\"nome\": \"Sensor de chuva\", \"descricao\": \"Aciona o limpador automaticamente.\"}")
+                .when().post("/acessorios")
+                .then()
+                .statusCode(201)
+                .cookie(RoteadorLeituras.COOKIE_ESCRITA, notNullValue())
+                .extract().cookie(RoteadorLeituras.COOKIE_ESCRITA);
+
+        double primario = sessoes("<default>");
+        double replicas = sessoes("replica1") + sessoes("replica2");
+
+        given().cookie(RoteadorLeituras.COOKIE_ESCRITA, ultimaEscrita)
+                .when().get("/acessorios")
+                .then()
+                .statusCode(200);
+
+        assertTrue(sessoes("<default>") > primario);
+        assertEquals(replicas, sessoes("replica1") + sessoes("replica2"));
+    }
+
+    private double sessoes(String fonte) {
+        Counter counter = registry.find(RoteadorLeituras.METRICA).tag("fonte", fonte).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}